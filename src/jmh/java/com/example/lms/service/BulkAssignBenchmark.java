@@ -0,0 +1,96 @@
+package com.example.lms.service;
+
+import com.example.lms.BackendLmsPostgresApplication;
+import com.example.lms.entity.Course;
+import com.example.lms.entity.Lesson;
+import com.example.lms.entity.User;
+import com.example.lms.support.TestData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lesson assignments written per second by {@link LessonAssignmentService#assignLessonToStudents}
+ * for 1,000 students, against the PostgreSQL test database (see application-test.yml).
+ * {@code single} turns JDBC batching and pgjdbc's reWriteBatchedInserts off, which is how
+ * every row went out before; {@code batched} is the configuration in application.yml.
+ * Every invocation assigns a new lesson, so the rows are all inserts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class BulkAssignBenchmark {
+
+    private static final int STUDENTS = 1_000;
+
+    @Param({"single", "batched"})
+    public String writes;
+
+    private ConfigurableApplicationContext context;
+    private LessonAssignmentService lessonAssignmentService;
+    private TestData data;
+    private User teacher;
+    private Course course;
+    private List<UUID> students;
+    private Lesson lesson;
+
+    @Setup
+    public void startApplication() {
+        boolean batched = writes.equals("batched");
+        context = new SpringApplicationBuilder(BackendLmsPostgresApplication.class, TestData.class)
+                .profiles("test")
+                // As arguments: they must win over application.yml, plain properties would not
+                .run("--server.port=0",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + (batched ? 50 : 1),
+                        "--spring.datasource.hikari.data-source-properties.reWriteBatchedInserts=" + batched,
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.example.lms=WARN");
+        lessonAssignmentService = context.getBean(LessonAssignmentService.class);
+        data = context.getBean(TestData.class);
+        teacher = data.user(User.Role.TEACHER);
+        course = data.course(teacher, Course.CourseStatus.APPROVED);
+        students = data.students(STUDENTS);
+        // Enrolled once here, so invocations only write assignments
+        lessonAssignmentService.assignLessonToStudents(newLesson().getId(), students, teacher);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareLesson() {
+        lesson = newLesson();
+    }
+
+    @TearDown
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STUDENTS)
+    public int assignLessonToStudents() {
+        return lessonAssignmentService.assignLessonToStudents(lesson.getId(), students, teacher);
+    }
+
+    private Lesson newLesson() {
+        return data.lesson(data.section(course, 1), 1);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.lms.service;
+
+import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Text of a .docx: {@link DocumentParserService#extractText}, which streams word/document.xml,
+ * against the former path that built the XWPFDocument DOM, took XWPFWordExtractor.getText()
+ * and normalized it with three replaceAll copies. Run with {@code -prof gc} to compare the
+ * bytes allocated per parse as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+public class DocxExtractionBenchmark {
+
+    @Param({"1000", "20000"})
+    public int paragraphs;
+
+    private DocumentParserService documentParserService;
+    private ByteArrayResource document;
+
+    @Setup
+    public void setUp() throws IOException {
+        documentParserService = new DocumentParserService();
+        ReflectionTestUtils.setField(documentParserService, "maxTextLength", Integer.MAX_VALUE);
+        document = new ByteArrayResource(generate(paragraphs));
+    }
+
+    @Benchmark
+    public String stream() throws IOException {
+        return documentParserService.extractText(document, "lesson.docx", Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public String xwpf() throws IOException {
+        try (XWPFDocument xwpf = new XWPFDocument(document.getInputStream());
+             XWPFWordExtractor extractor = new XWPFWordExtractor(xwpf)) {
+            return extractor.getText().trim()
+                    .replaceAll("\\r\\n", "\n")
+                    .replaceAll("\\r", "\n")
+                    .replaceAll("\\n{3,}", "\n\n");
+        }
+    }
+
+    /**
+     * Lesson-like text: paragraphs of a few runs, a heading and a small table every 50 paragraphs
+     */
+    private static byte[] generate(int paragraphs) throws IOException {
+        try (XWPFDocument xwpf = new XWPFDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            for (int i = 0; i < paragraphs; i++) {
+                if (i % 50 == 0) {
+                    XWPFParagraph heading = xwpf.createParagraph();
+                    heading.setStyle("Heading2");
+                    heading.createRun().setText("Bài " + (i / 50 + 1));
+
+                    XWPFTable table = xwpf.createTable(3, 3);
+                    for (int row = 0; row < 3; row++) {
+                        for (int cell = 0; cell < 3; cell++) {
+                            table.getRow(row).getCell(cell).setText("Ô " + row + "." + cell);
+                        }
+                    }
+                }
+                XWPFParagraph paragraph = xwpf.createParagraph();
+                paragraph.createRun().setText("Đoạn " + i + ": nội dung bài học về biến, vòng lặp và hàm. ");
+                paragraph.createRun().setBold(true);
+                paragraph.getRuns().get(1).setText("Ghi nhớ");
+                paragraph.createRun().setText(" các ví dụ trong giáo trình.");
+            }
+            xwpf.write(out);
+            return out.toByteArray();
+        }
+    }
+}
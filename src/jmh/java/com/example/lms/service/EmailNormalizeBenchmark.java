@@ -0,0 +1,60 @@
+package com.example.lms.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Email cells of a student import: {@link ExcelProcessingService#normalizeEmail} against the
+ * former check, which matched {@code EMAIL_PATTERN} on the trimmed cell and then lowercased it.
+ * One operation is a sheet column of 1,000 cells, mostly valid addresses with some names and
+ * numbers typed in the wrong column.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailNormalizeBenchmark {
+
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$");
+
+    private final String[] cells = new String[1_000];
+
+    public EmailNormalizeBenchmark() {
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = switch (i % 10) {
+                case 0 -> "Nguyễn Văn " + i;
+                case 1 -> " 0912" + i + " ";
+                case 2 -> "  Student." + i + "@Example.EDU.vn ";
+                default -> "student" + i + "@example.com";
+            };
+        }
+    }
+
+    @Benchmark
+    public void normalizeEmail(Blackhole blackhole) {
+        for (String cell : cells) {
+            blackhole.consume(ExcelProcessingService.normalizeEmail(cell));
+        }
+    }
+
+    @Benchmark
+    public void formerRegex(Blackhole blackhole) {
+        for (String cell : cells) {
+            boolean valid = cell != null && !cell.trim().isEmpty() && EMAIL_PATTERN.matcher(cell.trim()).matches();
+            blackhole.consume(valid ? cell.toLowerCase().trim() : null);
+        }
+    }
+}
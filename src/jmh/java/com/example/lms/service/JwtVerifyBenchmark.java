@@ -0,0 +1,84 @@
+package com.example.lms.service;
+
+import com.example.lms.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token verification per request: {@link JwtService#verify} with the key and parser built
+ * once, against the former code path that hex-decoded the secret and built a parser for every
+ * claim lookup. The authentication filter did three such lookups per request
+ * (extractUsername, then isTokenValid: subject and expiration).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerifyBenchmark {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpirationInMs", 86_400_000);
+        jwtService.init();
+        token = jwtService.generateToken(User.builder()
+                .id(UUID.randomUUID())
+                .username("student01")
+                .email("student01@example.com")
+                .password("x")
+                .fullName("Student 01")
+                .role(User.Role.STUDENT)
+                .build());
+    }
+
+    @Benchmark
+    public JwtService.TokenClaims verify() {
+        return jwtService.verify(token);
+    }
+
+    @Benchmark
+    public Claims perCallKeyAndParser() {
+        return parseWithNewKeyAndParser(token);
+    }
+
+    @Benchmark
+    public boolean perCallKeyAndParserFilterFlow() {
+        String username = parseWithNewKeyAndParser(token).getSubject();
+        boolean sameUser = parseWithNewKeyAndParser(token).getSubject().equals(username);
+        return sameUser && parseWithNewKeyAndParser(token).getExpiration().getTime() > System.currentTimeMillis();
+    }
+
+    private static Claims parseWithNewKeyAndParser(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(HexFormat.of().parseHex(SECRET));
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.lms.config;
+
+import com.example.lms.entity.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lightweight principal built straight from token claims in stateless mode.
+ * The full {@link User} entity is only loaded when a controller asks for it.
+ */
+public record AuthenticatedUser(UUID id, String username, User.Role role) {
+
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+}
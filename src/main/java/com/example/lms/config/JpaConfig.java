@@ -0,0 +1,18 @@
+package com.example.lms.config;
+
+import com.example.lms.repository.KeysetJpaRepository;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+@Configuration
+@EnableJpaRepositories(basePackages = "com.example.lms.repository", repositoryBaseClass = KeysetJpaRepository.class)
+public class JpaConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryBudgetCustomizer(QueryBudgetInterceptor queryBudgetInterceptor) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, queryBudgetInterceptor);
+    }
+}
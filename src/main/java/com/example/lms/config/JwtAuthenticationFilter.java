@@ -1,6 +1,9 @@
 package com.example.lms.config;
 
+import com.example.lms.entity.User;
 import com.example.lms.service.JwtService;
+import com.example.lms.service.JwtTokenCache;
+import com.example.lms.service.TokenVersionService;
 import com.example.lms.service.UserService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -23,6 +26,8 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
+    private final JwtTokenCache tokenCache;
+    private final TokenVersionService tokenVersionService;
     @Lazy
     private final UserService userService;
 
@@ -35,7 +40,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
 
         // Check if Authorization header exists and starts with "Bearer "
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -45,39 +49,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         // Extract JWT token
         jwt = authHeader.substring(7);
-        
-        System.out.println("=== JWT DEBUG ===");
-        System.out.println("Request URI: " + request.getRequestURI());
-        System.out.println("JWT Token: " + jwt.substring(0, Math.min(20, jwt.length())) + "...");
-        
-        try {
-            username = jwtService.extractUsername(jwt);
-            System.out.println("Extracted username: " + username);
 
-            // If username is extracted and no authentication is set in SecurityContext
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userService.loadUserByUsername(username);
-                System.out.println("Loaded UserDetails: " + userDetails.getUsername());
-                System.out.println("User Authorities: " + userDetails.getAuthorities());
-                
-                // Validate token
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    System.out.println("JWT Token is valid");
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
+        try {
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                UsernamePasswordAuthenticationToken authToken = jwtService.isStatelessMode()
+                        ? authenticateStateless(jwt)
+                        : authenticate(jwt);
+                if (authToken != null) {
                     authToken.setDetails(
                             new WebAuthenticationDetailsSource().buildDetails(request)
                     );
                     SecurityContextHolder.getContext().setAuthentication(authToken);
-                    System.out.println("Authentication set in SecurityContext");
-                } else {
-                    System.out.println("JWT Token is INVALID");
                 }
             }
-            System.out.println("=== END JWT DEBUG ===");
         } catch (Exception e) {
             // Log the error but don't block the request
             logger.error("Cannot set user authentication: {}", e);
@@ -85,4 +69,55 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private UsernamePasswordAuthenticationToken authenticate(String jwt) {
+        User principal = tokenCache.get(jwt);
+        if (principal == null) {
+            principal = verifyAndLoad(jwt);
+        }
+        if (principal == null) {
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    /**
+     * Trust the id/role claims of the token, no UserRepository access.
+     * Tokens issued before a role change or lock carry an outdated version and are rejected.
+     */
+    private UsernamePasswordAuthenticationToken authenticateStateless(String jwt) {
+        JwtService.TokenClaims claims = jwtService.verify(jwt);
+        if (claims.isExpired() || claims.userId() == null || claims.role() == null) {
+            logger.debug("JWT token is expired or has no stateless claims");
+            return null;
+        }
+        if (!tokenVersionService.isCurrent(claims.userId(), claims.tokenVersion())) {
+            logger.debug("JWT token has been revoked");
+            return null;
+        }
+
+        AuthenticatedUser principal = new AuthenticatedUser(
+                claims.userId(), claims.subject(), User.Role.valueOf(claims.role()));
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    /**
+     * Cache miss: verify the signature once, load the user and remember the result
+     * until the token expires.
+     */
+    private User verifyAndLoad(String jwt) {
+        JwtService.TokenClaims claims = jwtService.verify(jwt);
+        if (claims.subject() == null || claims.isExpired()) {
+            logger.debug("JWT token is invalid or expired");
+            return null;
+        }
+
+        long stamp = tokenCache.evictionStamp();
+        UserDetails userDetails = this.userService.loadUserByUsername(claims.subject());
+        if (!(userDetails instanceof User user)) {
+            return null;
+        }
+        tokenCache.put(jwt, user, claims.expiresAt(), stamp);
+        return user;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.lms.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Counts the SQL statements Hibernate prepares while a request is handled and logs the
+ * requests that exceed {@code app.jpa.query-budget}. With open-in-view off every endpoint
+ * reads what it shows through an explicit fetch plan; a request over budget usually means
+ * a new per-row lookup (N+1) crept into a service or converter.
+ * QueryBudgetTest holds the endpoints to their budgets at build time; this only reports
+ * what slips past it in production.
+ */
+@Slf4j
+@Component
+public class QueryBudgetInterceptor implements HandlerInterceptor, StatementInspector {
+
+    private static final ThreadLocal<int[]> STATEMENTS = new ThreadLocal<>();
+
+    @Value("${app.jpa.query-budget:10}")
+    private int budget;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (budget > 0) {
+            STATEMENTS.set(new int[1]);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        int[] count = STATEMENTS.get();
+        STATEMENTS.remove();
+        if (count != null && count[0] > budget) {
+            log.warn("{} {} ran {} SQL statements (budget {})",
+                    request.getMethod(), request.getRequestURI(), count[0], budget);
+        }
+    }
+
+    @Override
+    public String inspect(String sql) {
+        // Statements outside a request (jobs, schedulers) are not counted
+        int[] count = STATEMENTS.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+}
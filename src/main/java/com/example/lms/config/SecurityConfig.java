@@ -56,6 +56,7 @@ public class SecurityConfig {
                         
                         // Admin endpoints
                         .requestMatchers("/api/admin/**", "/api/v1/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/metrics/**").hasRole("ADMIN")
                         
                         // User management endpoints (ADMIN only)
                         .requestMatchers("/api/v1/users/**").hasRole("ADMIN")
@@ -71,6 +72,8 @@ public class SecurityConfig {
                         
                         // File streaming: allow GET to serve uploaded files (video/audio/images)
                         .requestMatchers(HttpMethod.GET, "/api/v1/files/**").permitAll()
+                        // Presigned storage URLs (local backend): authorized by the URL signature
+                        .requestMatchers("/api/v1/storage/**").permitAll()
                         // Other file operations (upload/delete) require auth
                         .requestMatchers("/api/v1/files/**").hasAnyRole("ADMIN", "TEACHER", "STUDENT")
                         
@@ -1,11 +1,12 @@
 package com.example.lms.controller;
 
 import com.example.lms.dto.ApiResponse;
+import com.example.lms.dto.response.CursorPage;
 import com.example.lms.entity.Course;
+import com.example.lms.entity.CourseStats;
 import com.example.lms.entity.User;
 import com.example.lms.service.AdminService;
-import com.example.lms.repository.SectionRepository;
-import com.example.lms.repository.AssignmentRepository;
+import com.example.lms.service.CourseStatsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -24,6 +25,7 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -36,8 +38,7 @@ import java.util.UUID;
 public class AdminController {
 
     private final AdminService adminService;
-    private final SectionRepository sectionRepository;
-    private final AssignmentRepository assignmentRepository;
+    private final CourseStatsService courseStatsService;
 
     @GetMapping("/courses/pending")
     @Operation(summary = "Lấy danh sách khóa học chờ duyệt", description = "Admin lấy tất cả khóa học đang chờ duyệt")
@@ -48,8 +49,10 @@ public class AdminController {
         try {
             Pageable pageable = PageRequest.of(page - 1, limit);
             Page<Course> courses = adminService.getPendingCourses(pageable);
+            Map<UUID, CourseStats> stats = courseStatsService.getCourseStats(courseIds(courses));
             
-            Page<PendingCourseSummary> courseSummaries = courses.map(this::convertToPendingCourseSummary);
+            Page<PendingCourseSummary> courseSummaries = courses.map(course ->
+                    convertToPendingCourseSummary(course, stats.get(course.getId())));
             
             return ResponseEntity.ok(ApiResponse.success(courseSummaries));
         } catch (Exception e) {
@@ -102,29 +105,76 @@ public class AdminController {
 
     @GetMapping("/courses/all")
     @Operation(summary = "Lấy tất cả khóa học", description = "Admin lấy danh sách tất cả khóa học trong hệ thống")
-    public ResponseEntity<ApiResponse<Page<AdminCourseSummary>>> getAllCourses(
+    public ResponseEntity<ApiResponse<?>> getAllCourses(
             @Parameter(description = "Số trang (bắt đầu từ 1)") @RequestParam(defaultValue = "1") int page,
             @Parameter(description = "Số lượng item trên mỗi trang") @RequestParam(defaultValue = "10") int limit,
             @Parameter(description = "Lọc theo trạng thái") @RequestParam(required = false) String status,
-            @Parameter(description = "Tìm kiếm theo tên khóa học") @RequestParam(required = false) String search
+            @Parameter(description = "Tìm kiếm theo tên khóa học") @RequestParam(required = false) String search,
+            @Parameter(description = "Phân trang bằng cursor: gửi cursor rỗng để lấy trang đầu, sau đó gửi nextCursor của trang trước (bỏ qua page)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Kèm tổng số item khi phân trang bằng cursor (thêm một truy vấn COUNT)") @RequestParam(defaultValue = "false") boolean withTotal
     ) {
         try {
+            Course.CourseStatus courseStatus = status != null ? Course.CourseStatus.valueOf(status.toUpperCase()) : null;
+            if (cursor != null) {
+                CursorPage<Course> courses = adminService.getAllCourses(search, courseStatus, cursor, limit, withTotal);
+                Map<UUID, CourseStats> stats = courseStatsService.getCourseStats(
+                    courses.getItems().stream().map(Course::getId).toList());
+                return ResponseEntity.ok(ApiResponse.success(courses.map(course ->
+                    convertToAdminCourseSummary(course, stats.get(course.getId())))));
+            }
+            
             Pageable pageable = PageRequest.of(page - 1, limit);
-            Page<Course> courses = adminService.getAllCourses(search, 
-                status != null ? Course.CourseStatus.valueOf(status.toUpperCase()) : null, 
-                pageable);
+            Page<Course> courses = adminService.getAllCourses(search, courseStatus, pageable);
             
-            Page<AdminCourseSummary> courseSummaries = courses.map(this::convertToAdminCourseSummary);
+            Map<UUID, CourseStats> stats = courseStatsService.getCourseStats(courseIds(courses));
+            
+            Page<AdminCourseSummary> courseSummaries = courses.map(course ->
+                    convertToAdminCourseSummary(course, stats.get(course.getId())));
             
             return ResponseEntity.ok(ApiResponse.success(courseSummaries));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Lỗi khi lấy danh sách khóa học: " + e.getMessage()));
         }
     }
 
+    @GetMapping("/users/search")
+    @Operation(summary = "Tìm kiếm người dùng", description = "Admin tìm người dùng theo tên, email hoặc username (không phân biệt dấu), xếp theo độ phù hợp, phân trang bằng cursor")
+    public ResponseEntity<ApiResponse<CursorPage<UserController.UserSummary>>> searchUsers(
+            @Parameter(description = "Từ khóa tìm kiếm") @RequestParam String q,
+            @Parameter(description = "Lọc theo vai trò") @RequestParam(required = false) String role,
+            @Parameter(description = "Cursor trả về ở trang trước (bỏ trống để lấy trang đầu)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Số lượng item trên mỗi trang") @RequestParam(defaultValue = "20") int limit
+    ) {
+        try {
+            CursorPage<User> users = adminService.searchUsers(q,
+                role != null ? User.Role.valueOf(role.toUpperCase()) : null,
+                cursor, limit);
+            
+            CursorPage<UserController.UserSummary> userSummaries = users.map(user -> UserController.UserSummary.builder()
+                    .id(user.getId())
+                    .username(user.getUsername())
+                    .email(user.getEmail())
+                    .fullName(user.getFullName())
+                    .role(user.getRole().name())
+                    .enabled(user.getEnabled())
+                    .createdAt(user.getCreatedAt())
+                    .build());
+            
+            return ResponseEntity.ok(ApiResponse.success(userSummaries));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     // Helper methods
-    private PendingCourseSummary convertToPendingCourseSummary(Course course) {
+    private List<UUID> courseIds(Page<Course> courses) {
+        return courses.getContent().stream().map(Course::getId).toList();
+    }
+
+    private PendingCourseSummary convertToPendingCourseSummary(Course course, CourseStats stats) {
         return PendingCourseSummary.builder()
                 .id(course.getId())
                 .code(course.getCode())
@@ -133,22 +183,22 @@ public class AdminController {
                 .teacherId(course.getTeacher().getId())
                 .teacherName(course.getTeacher().getFullName())
                 .teacherEmail(course.getTeacher().getEmail())
-                .sectionsCount(Math.toIntExact(sectionRepository.countByCourseId(course.getId())))
+                .sectionsCount(stats.getSectionsCount())
                 .submittedAt(course.getUpdatedAt() != null ? course.getUpdatedAt() : course.getCreatedAt())
                 .createdAt(course.getCreatedAt())
                 .build();
     }
 
-    private AdminCourseSummary convertToAdminCourseSummary(Course course) {
+    private AdminCourseSummary convertToAdminCourseSummary(Course course, CourseStats stats) {
         return AdminCourseSummary.builder()
                 .id(course.getId())
                 .code(course.getCode())
                 .title(course.getTitle())
                 .status(course.getStatus().name())
                 .teacherName(course.getTeacher().getFullName())
-                .enrolledCount(0) // TODO: Add count query for enrolled students
-                .sectionsCount(Math.toIntExact(sectionRepository.countByCourseId(course.getId())))
-                .assignmentsCount(Math.toIntExact(assignmentRepository.countByCourseId(course.getId())))
+                .enrolledCount(stats.getEnrolledCount())
+                .sectionsCount(stats.getSectionsCount())
+                .assignmentsCount(stats.getAssignmentsCount())
                 .createdAt(course.getCreatedAt())
                 .updatedAt(course.getUpdatedAt())
                 .build();
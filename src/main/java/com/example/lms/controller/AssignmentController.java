@@ -1,10 +1,13 @@
 package com.example.lms.controller;
 
 import com.example.lms.dto.ApiResponse;
+import com.example.lms.dto.response.AssignmentSummaryView;
+import com.example.lms.dto.response.CursorPage;
 import com.example.lms.entity.Assignment;
 import com.example.lms.entity.AssignmentSubmission;
 import com.example.lms.entity.User;
 import com.example.lms.service.AssignmentService;
+import com.example.lms.service.CourseStatsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -36,6 +39,7 @@ import java.util.UUID;
 public class AssignmentController {
 
     private final AssignmentService assignmentService;
+    private final CourseStatsService courseStatsService;
 
     @GetMapping("/courses/{courseId}/assignments")
     @Operation(summary = "Lấy danh sách bài tập của khóa học", description = "Lấy tất cả bài tập trong một khóa học")
@@ -47,14 +51,8 @@ public class AssignmentController {
     ) {
         try {
             Pageable pageable = PageRequest.of(page - 1, limit);
-            List<Assignment> assignmentList = assignmentService.getAssignmentsByCourse(courseId, currentUser);
-            // Convert to Page manually for consistency
-            int start = (int) pageable.getOffset();
-            int end = Math.min((start + pageable.getPageSize()), assignmentList.size());
-            List<Assignment> pageContent = assignmentList.subList(start, end);
-            Page<Assignment> assignments = new org.springframework.data.domain.PageImpl<>(pageContent, pageable, assignmentList.size());
-            
-            Page<AssignmentSummary> assignmentSummaries = assignments.map(this::convertToAssignmentSummary);
+            Page<AssignmentSummary> assignmentSummaries = assignmentService.getAssignmentsByCourse(courseId, currentUser, pageable)
+                    .map(this::convertToAssignmentSummary);
             
             return ResponseEntity.ok(ApiResponse.success(assignmentSummaries));
         } catch (Exception e) {
@@ -130,19 +128,29 @@ public class AssignmentController {
 
     @GetMapping("/assignments/{assignmentId}/submissions")
     @Operation(summary = "Lấy danh sách bài nộp", description = "Giảng viên xem tất cả bài nộp của một bài tập")
-    public ResponseEntity<ApiResponse<Page<SubmissionSummary>>> getSubmissionsByAssignment(
+    public ResponseEntity<ApiResponse<?>> getSubmissionsByAssignment(
             @PathVariable UUID assignmentId,
             @AuthenticationPrincipal User currentUser,
             @Parameter(description = "Số trang (bắt đầu từ 1)") @RequestParam(defaultValue = "1") int page,
-            @Parameter(description = "Số lượng item trên mỗi trang") @RequestParam(defaultValue = "10") int limit
+            @Parameter(description = "Số lượng item trên mỗi trang") @RequestParam(defaultValue = "10") int limit,
+            @Parameter(description = "Phân trang bằng cursor: gửi cursor rỗng để lấy trang đầu, sau đó gửi nextCursor của trang trước (bỏ qua page)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Kèm tổng số item khi phân trang bằng cursor (thêm một truy vấn COUNT)") @RequestParam(defaultValue = "false") boolean withTotal
     ) {
         try {
+            if (cursor != null) {
+                CursorPage<AssignmentSubmission> submissions =
+                        assignmentService.getSubmissions(assignmentId, currentUser, cursor, limit, withTotal);
+                return ResponseEntity.ok(ApiResponse.success(submissions.map(this::convertToSubmissionSummary)));
+            }
+            
             Pageable pageable = PageRequest.of(page - 1, limit);
             Page<AssignmentSubmission> submissions = assignmentService.getSubmissions(assignmentId, currentUser, pageable);
             
             Page<SubmissionSummary> submissionSummaries = submissions.map(this::convertToSubmissionSummary);
             
             return ResponseEntity.ok(ApiResponse.success(submissionSummaries));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Lỗi khi lấy danh sách bài nộp: " + e.getMessage()));
@@ -201,7 +209,7 @@ public class AssignmentController {
     }
 
     // Helper methods
-    private AssignmentSummary convertToAssignmentSummary(Assignment assignment) {
+    private AssignmentSummary convertToAssignmentSummary(AssignmentSummaryView assignment) {
         return AssignmentSummary.builder()
                 .id(assignment.getId())
                 .title(assignment.getTitle())
@@ -209,9 +217,9 @@ public class AssignmentController {
                 .maxScore(assignment.getMaxScore())
                 .dueDate(assignment.getDueDate() != null ? 
                     assignment.getDueDate().atZone(java.time.ZoneId.systemDefault()).toInstant() : null)
-                .courseId(assignment.getCourse().getId())
-                .courseTitle(assignment.getCourse().getTitle())
-                .submissionsCount(assignment.getSubmissions() != null ? assignment.getSubmissions().size() : 0)
+                .courseId(assignment.getCourseId())
+                .courseTitle(assignment.getCourseTitle())
+                .submissionsCount(assignment.getSubmissionsCount())
                 .createdAt(assignment.getCreatedAt())
                 .build();
     }
@@ -227,7 +235,7 @@ public class AssignmentController {
                     assignment.getDueDate().atZone(java.time.ZoneId.systemDefault()).toInstant() : null)
                 .courseId(assignment.getCourse().getId())
                 .courseTitle(assignment.getCourse().getTitle())
-                .submissionsCount(assignment.getSubmissions() != null ? assignment.getSubmissions().size() : 0)
+                .submissionsCount(courseStatsService.getSubmissionsCount(assignment.getId()))
                 .createdAt(assignment.getCreatedAt())
                 .updatedAt(assignment.getUpdatedAt())
                 .build();
@@ -2,11 +2,16 @@ package com.example.lms.controller;
 
 import com.example.lms.dto.ApiResponse;
 import com.example.lms.entity.Course;
-import com.example.lms.entity.Section;
 import com.example.lms.entity.User;
 import com.example.lms.service.CourseService;
-import com.example.lms.service.ExcelProcessingService;
-import com.example.lms.dto.response.BulkEnrollmentResponse;
+import com.example.lms.dto.response.CourseOutline;
+import com.example.lms.dto.response.CourseSummaryView;
+import com.example.lms.dto.response.CursorPage;
+import com.example.lms.dto.response.EnrollmentJobResponse;
+import com.example.lms.entity.EnrollmentJob;
+import com.example.lms.service.BulkEnrollmentJobService;
+import com.example.lms.service.CourseStatsService;
+import com.example.lms.entity.CourseStats;
 import org.springframework.web.multipart.MultipartFile;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -37,29 +42,56 @@ import java.util.stream.Collectors;
 public class CourseController {
 
     private final CourseService courseService;
-    private final ExcelProcessingService excelProcessingService;
+    private final BulkEnrollmentJobService bulkEnrollmentJobService;
+    private final CourseStatsService courseStatsService;
 
     @GetMapping
     @Operation(summary = "Lấy danh sách khóa học công khai", description = "Lấy danh sách khóa học đã được duyệt")
-    public ResponseEntity<ApiResponse<Page<CourseSummary>>> getPublicCourses(
+    public ResponseEntity<ApiResponse<?>> getPublicCourses(
             @Parameter(description = "Số trang (bắt đầu từ 1)") @RequestParam(defaultValue = "1") int page,
             @Parameter(description = "Số lượng item trên mỗi trang") @RequestParam(defaultValue = "10") int limit,
             @Parameter(description = "Tìm kiếm theo tên khóa học") @RequestParam(required = false) String search,
-            @Parameter(description = "Lọc theo giảng viên") @RequestParam(required = false) String teacher
+            @Parameter(description = "Lọc theo giảng viên") @RequestParam(required = false) String teacher,
+            @Parameter(description = "Phân trang bằng cursor: gửi cursor rỗng để lấy trang đầu, sau đó gửi nextCursor của trang trước (bỏ qua page)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Kèm tổng số item khi phân trang bằng cursor (thêm một truy vấn COUNT)") @RequestParam(defaultValue = "false") boolean withTotal
     ) {
         try {
+            if (cursor != null) {
+                CursorPage<CourseSummaryView> courses = search != null && !search.trim().isEmpty()
+                        ? courseService.searchApprovedCourses(search, cursor, limit)
+                        : courseService.getApprovedCourses(cursor, limit, withTotal);
+                return ResponseEntity.ok(ApiResponse.success(courses.map(this::convertToCourseSummary)));
+            }
+            
             Pageable pageable = PageRequest.of(page - 1, limit);
-            Page<Course> courses = courseService.getApprovedCourses(pageable, search, teacher);
+            Page<CourseSummaryView> courses = courseService.getApprovedCourses(pageable, search, teacher);
             
             Page<CourseSummary> courseSummaries = courses.map(this::convertToCourseSummary);
             
             return ResponseEntity.ok(ApiResponse.success(courseSummaries));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Lỗi khi lấy danh sách khóa học: " + e.getMessage()));
         }
     }
 
+    @GetMapping("/search")
+    @Operation(summary = "Tìm kiếm khóa học", description = "Tìm khóa học đã duyệt theo tên, mô tả hoặc mã (không phân biệt dấu), xếp theo độ phù hợp, phân trang bằng cursor")
+    public ResponseEntity<ApiResponse<CursorPage<CourseSummary>>> searchCourses(
+            @Parameter(description = "Từ khóa tìm kiếm") @RequestParam String q,
+            @Parameter(description = "Cursor trả về ở trang trước (bỏ trống để lấy trang đầu)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Số lượng item trên mỗi trang") @RequestParam(defaultValue = "10") int limit
+    ) {
+        try {
+            CursorPage<CourseSummaryView> courses = courseService.searchApprovedCourses(q, cursor, limit);
+            return ResponseEntity.ok(ApiResponse.success(courses.map(this::convertToCourseSummary)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     @PostMapping("/{courseId}/enrollments")
     @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
     @SecurityRequirement(name = "Bearer Authentication")
@@ -90,36 +122,67 @@ public class CourseController {
     @PostMapping("/{courseId}/bulk-enroll")
     @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
     @SecurityRequirement(name = "Bearer Authentication")
-    @Operation(summary = "Gán nhiều học viên bằng file Excel", description = "Giảng viên hoặc admin gán nhiều học viên vào khóa học thông qua file Excel")
-    public ResponseEntity<ApiResponse<BulkEnrollmentResponse>> bulkEnrollStudents(
+    @Operation(summary = "Gán nhiều học viên bằng file Excel", description = "Giảng viên hoặc admin gán nhiều học viên vào khóa học thông qua file Excel. File được xử lý nền, trả về mã tác vụ để theo dõi tiến độ")
+    public ResponseEntity<ApiResponse<EnrollmentJobResponse>> bulkEnrollStudents(
             @PathVariable UUID courseId,
             @AuthenticationPrincipal User currentUser,
             @RequestParam("file") MultipartFile file
     ) {
         try {
-            // Extract emails from Excel file
-            List<String> emails = excelProcessingService.extractEmailsFromExcel(file);
-            
-            if (emails.isEmpty()) {
-                return ResponseEntity.badRequest()
-                    .body(ApiResponse.error("Không tìm thấy email nào trong file Excel"));
-            }
-            
-            // Perform bulk enrollment
-            BulkEnrollmentResponse response = courseService.bulkEnrollStudents(courseId, emails);
-            
-            return ResponseEntity.ok(ApiResponse.success(response, 
-                String.format("Đã xử lý %d email: %d thành công, %d lỗi", 
-                    response.getTotalProcessed(), response.getSuccessCount(), response.getErrorCount())));
-                    
+            EnrollmentJob job = bulkEnrollmentJobService.submit(courseId, currentUser, file);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(EnrollmentJobResponse.from(job), "Đã nhận file, đang xử lý"));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (RuntimeException e) {
+            String msg = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            if (msg.contains("Không tìm thấy")) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(msg));
+            }
+            return ResponseEntity.badRequest().body(ApiResponse.error(msg));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponse.error("Lỗi xử lý file: " + e.getMessage()));
         }
     }
 
+    @GetMapping("/{courseId}/bulk-enroll/jobs/{jobId}")
+    @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
+    @SecurityRequirement(name = "Bearer Authentication")
+    @Operation(summary = "Tiến độ gán học viên bằng file Excel", description = "Trạng thái và tiến độ của tác vụ gán học viên; kết quả chi tiết có khi tác vụ kết thúc")
+    public ResponseEntity<ApiResponse<EnrollmentJobResponse>> getBulkEnrollmentJob(
+            @PathVariable UUID courseId,
+            @PathVariable UUID jobId,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        try {
+            EnrollmentJob job = bulkEnrollmentJobService.getJob(jobId);
+            if (!job.getCourseId().equals(courseId)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error("Không tìm thấy tác vụ gán học viên với ID: " + jobId));
+            }
+            if (currentUser.getRole() != User.Role.ADMIN && !currentUser.getId().equals(job.getRequestedBy())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.error("Bạn không có quyền xem tác vụ này"));
+            }
+            
+            EnrollmentJobResponse response = EnrollmentJobResponse.from(job);
+            if (job.getStatus() == EnrollmentJob.JobStatus.COMPLETED) {
+                return ResponseEntity.ok(ApiResponse.success(response,
+                    String.format("Đã xử lý %d email: %d thành công, %d lỗi",
+                        response.getTotalProcessed(), response.getSuccessCount(), response.getErrorCount())));
+            }
+            return ResponseEntity.ok(ApiResponse.success(response));
+        } catch (RuntimeException e) {
+            String msg = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            if (msg.contains("Không tìm thấy")) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(msg));
+            }
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Lỗi khi lấy tiến độ: " + msg));
+        }
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('TEACHER')")
     @SecurityRequirement(name = "Bearer Authentication")
@@ -149,7 +212,7 @@ public class CourseController {
     ) {
         try {
             Pageable pageable = PageRequest.of(page - 1, limit);
-            Page<Course> courses = courseService.getCoursesByTeacher(currentUser, pageable);
+            Page<CourseSummaryView> courses = courseService.getCoursesByTeacher(currentUser, pageable);
             
             Page<CourseSummary> courseSummaries = courses.map(this::convertToCourseSummary);
             
@@ -171,7 +234,7 @@ public class CourseController {
     ) {
         try {
             Pageable pageable = PageRequest.of(page - 1, limit);
-            Page<Course> courses = courseService.getEnrolledCourses(currentUser, pageable);
+            Page<CourseSummaryView> courses = courseService.getEnrolledCourses(currentUser, pageable);
             
             Page<CourseSummary> courseSummaries = courses.map(this::convertToCourseSummary);
             
@@ -269,8 +332,8 @@ public class CourseController {
             @AuthenticationPrincipal User currentUser
     ) {
         try {
-            List<Section> sections = courseService.getCourseContent(courseId, currentUser);
-            List<SectionWithLessons> content = sections.stream()
+            CourseOutline outline = courseService.getCourseContent(courseId, currentUser);
+            List<SectionWithLessons> content = outline.sections().stream()
                     .map(this::convertToSectionWithLessons)
                     .collect(Collectors.toList());
             
@@ -288,36 +351,23 @@ public class CourseController {
     }
 
     // Helper methods
-    private CourseSummary convertToCourseSummary(Course course) {
-        int enrolledCount = 0;
-        try {
-            enrolledCount = course.getEnrolledStudents() != null ? course.getEnrolledStudents().size() : 0;
-        } catch (Exception ignored) {}
-
+    private CourseSummary convertToCourseSummary(CourseSummaryView course) {
         return CourseSummary.builder()
                 .id(course.getId())
                 .code(course.getCode())
                 .title(course.getTitle())
                 .description(course.getDescription())
                 .status(course.getStatus().name())
-                .teacherName(course.getTeacher().getFullName())
-                .enrolledCount(enrolledCount)
+                .teacherName(course.getTeacherName())
+                .enrolledCount(course.getEnrolledCount())
                 .createdAt(course.getCreatedAt())
                 .build();
     }
 
     private CourseDetail convertToCourseDetail(Course course) {
-    int sectionsCount = 0;
-    try {
-        sectionsCount = course.getSections() != null ? course.getSections().size() : 0;
-    } catch (Exception ignored) {}
-
-    int enrolledCount = 0;
-    try {
-        enrolledCount = course.getEnrolledStudents() != null ? course.getEnrolledStudents().size() : 0;
-    } catch (Exception ignored) {}
+        CourseStats stats = courseStatsService.getCourseStats(course.getId());
 
-    return CourseDetail.builder()
+        return CourseDetail.builder()
                 .id(course.getId())
                 .code(course.getCode())
                 .title(course.getTitle())
@@ -325,29 +375,28 @@ public class CourseController {
                 .status(course.getStatus().name())
                 .teacherId(course.getTeacher().getId())
                 .teacherName(course.getTeacher().getFullName())
-                .enrolledCount(enrolledCount)
-        .sectionsCount(sectionsCount)
+                .enrolledCount(stats.getEnrolledCount())
+                .sectionsCount(stats.getSectionsCount())
                 .createdAt(course.getCreatedAt())
                 .updatedAt(course.getUpdatedAt())
                 .build();
     }
 
-    private SectionWithLessons convertToSectionWithLessons(Section section) {
-        List<com.example.lms.entity.Lesson> rawLessons = section.getLessons() != null ? section.getLessons() : java.util.Collections.emptyList();
-        List<LessonSummary> lessons = rawLessons.stream()
+    private SectionWithLessons convertToSectionWithLessons(CourseOutline.SectionOutline section) {
+        List<LessonSummary> lessons = section.lessons().stream()
                 .map(lesson -> LessonSummary.builder()
-                        .id(lesson.getId())
-                        .title(lesson.getTitle())
-                        .description(lesson.getDescription())
-                        .orderIndex(lesson.getOrderIndex())
+                        .id(lesson.id())
+                        .title(lesson.title())
+                        .description(lesson.description())
+                        .orderIndex(lesson.orderIndex())
                         .build())
                 .collect(Collectors.toList());
 
         return SectionWithLessons.builder()
-                .id(section.getId())
-                .title(section.getTitle())
-                .description(section.getDescription())
-                .orderIndex(section.getOrderIndex())
+                .id(section.id())
+                .title(section.title())
+                .description(section.description())
+                .orderIndex(section.orderIndex())
                 .lessons(lessons)
                 .build();
     }
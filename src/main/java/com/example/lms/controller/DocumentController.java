@@ -1,14 +1,24 @@
 package com.example.lms.controller;
 
-import com.example.lms.service.DocumentParserService;
+import com.example.lms.dto.ApiResponse;
+import com.example.lms.dto.response.DocumentExtractionJobResponse;
+import com.example.lms.entity.DocumentExtractionJob;
+import com.example.lms.entity.User;
+import com.example.lms.service.DocumentExtractionJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeoutException;
 
 /**
  * REST Controller for document upload and text extraction
@@ -19,7 +29,7 @@ import java.util.Map;
 @Slf4j
 public class DocumentController {
 
-    private final DocumentParserService documentParserService;
+    private final DocumentExtractionJobService documentExtractionJobService;
 
     /**
      * Upload and parse .doc/.docx file to extract text content
@@ -34,11 +44,8 @@ public class DocumentController {
             log.info("Received document upload request. Filename: {}, Size: {} bytes", 
                     file.getOriginalFilename(), file.getSize());
 
-            // Validate file
-            documentParserService.validateFile(file);
-
-            // Extract text content
-            String extractedContent = documentParserService.extractTextFromDocument(file);
+            // Validate and extract text content (bounded parser pool, see DocumentExtractionJobService)
+            String extractedContent = documentExtractionJobService.extractNow(file);
 
             log.info("Successfully extracted text content. Length: {} characters", 
                     extractedContent.length());
@@ -58,6 +65,14 @@ public class DocumentController {
                 "message", "Invalid file or file format"
             ));
 
+        } catch (TimeoutException e) {
+            log.warn("Document upload not processed in time: {}", file.getOriginalFilename());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(
+                "success", false,
+                "error", "Processing timed out",
+                "message", "The server is busy or the document is too complex. Please use the background extraction."
+            ));
+
         } catch (Exception e) {
             log.error("Error processing document upload", e);
             return ResponseEntity.internalServerError().body(Map.of(
@@ -68,6 +83,58 @@ public class DocumentController {
         }
     }
 
+    /**
+     * Queue a .doc/.docx file for text extraction; poll the returned job for the content
+     */
+    @PostMapping("/jobs")
+    @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
+    @SecurityRequirement(name = "Bearer Authentication")
+    @Operation(summary = "Trích xuất nội dung tài liệu Word", description = "File được xử lý nền, trả về mã tác vụ để theo dõi và lấy nội dung")
+    public ResponseEntity<ApiResponse<DocumentExtractionJobResponse>> submitExtraction(
+            @AuthenticationPrincipal User currentUser,
+            @RequestParam("file") MultipartFile file
+    ) {
+        try {
+            DocumentExtractionJob job = documentExtractionJobService.submit(currentUser, file);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(DocumentExtractionJobResponse.from(job), "Đã nhận file, đang xử lý"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error queuing document extraction", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Lỗi xử lý file: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Status of an extraction job; the content is included once it has completed
+     */
+    @GetMapping("/jobs/{jobId}")
+    @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
+    @SecurityRequirement(name = "Bearer Authentication")
+    @Operation(summary = "Tiến độ trích xuất tài liệu", description = "Trạng thái của tác vụ trích xuất; nội dung có khi tác vụ hoàn thành")
+    public ResponseEntity<ApiResponse<DocumentExtractionJobResponse>> getExtraction(
+            @PathVariable UUID jobId,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        try {
+            DocumentExtractionJob job = documentExtractionJobService.getJob(jobId);
+            if (currentUser.getRole() != User.Role.ADMIN && !currentUser.getId().equals(job.getRequestedBy())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.error("Bạn không có quyền xem tác vụ này"));
+            }
+            return ResponseEntity.ok(ApiResponse.success(DocumentExtractionJobResponse.from(job)));
+        } catch (RuntimeException e) {
+            String msg = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            if (msg.contains("Không tìm thấy")) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(msg));
+            }
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Lỗi khi lấy tiến độ: " + msg));
+        }
+    }
+
     /**
      * Get supported file formats
      */
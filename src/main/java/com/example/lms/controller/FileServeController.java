@@ -1,51 +1,249 @@
 package com.example.lms.controller;
 
+import com.example.lms.service.FileServingService;
+import com.example.lms.service.FileServingService.ServedFile;
+import com.example.lms.service.StorageBackend;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
-import java.io.File;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/files")
+@RequiredArgsConstructor
 public class FileServeController {
 
-    @Value("${app.upload.dir:uploads}")
-    private String uploadDir;
+    // Tomcat sendfile: the connector writes the file straight to the socket after the handler returns
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final FileServingService fileServingService;
+    private final StorageBackend storageBackend;
+
+    // Object storage only: send clients to a short-lived presigned URL instead of proxying the bytes
+    @Value("${app.storage.redirect-downloads:false}")
+    private boolean redirectDownloads;
+
+    @Value("${app.storage.presign-ttl:PT15M}")
+    private Duration presignTtl;
 
     @GetMapping("/{type}/{year}/{month}/{filename}")
-    public ResponseEntity<Resource> serve(
+    public void serve(
             @PathVariable String type,
             @PathVariable String year,
             @PathVariable String month,
-            @PathVariable String filename
-    ) {
-        Path filePath = Paths.get(uploadDir, type, year, month, filename).normalize();
-        File file = filePath.toFile();
-        if (!file.exists() || !file.isFile()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            @PathVariable String filename,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        ServedFile file = fileServingService.resolve(type, year, month, filename);
+        if (file == null) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        if (redirectDownloads && file.path() == null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=60");
+            response.sendRedirect(storageBackend.presignGet(file.key(), presignTtl));
+            return;
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, file.cacheControl());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // Handles If-None-Match / If-Modified-Since (304) and sets ETag + Last-Modified
+        if (new ServletWebRequest(request, response).checkNotModified(file.etag(), file.lastModified())) {
+            return;
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"");
+
+        List<long[]> ranges = requestedRanges(request, file);
+        if (ranges == null) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + file.length());
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            return;
+        }
+
+        boolean head = "HEAD".equals(request.getMethod());
+        if (ranges.isEmpty()) {
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(file.mediaType().toString());
+            response.setContentLengthLong(file.length());
+            if (!head) {
+                send(request, response, file, 0, file.length());
+            }
+        } else if (ranges.size() == 1) {
+            long start = ranges.get(0)[0];
+            long end = ranges.get(0)[1];
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setContentType(file.mediaType().toString());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + file.length());
+            response.setContentLengthLong(end - start + 1);
+            if (!head) {
+                send(request, response, file, start, end - start + 1);
+            }
+        } else {
+            sendMultipart(response, file, ranges, head);
         }
+    }
+
+    /**
+     * @return the satisfiable ranges as inclusive [start, end] pairs, an empty list to send
+     *         the whole file, or null if the Range header cannot be satisfied (416)
+     */
+    private List<long[]> requestedRanges(HttpServletRequest request, ServedFile file) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null || !ifRangeMatches(request, file)) {
+            return List.of();
+        }
+
+        List<HttpRange> parsed;
+        try {
+            parsed = HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        List<long[]> ranges = new ArrayList<>(parsed.size());
+        long total = 0;
+        for (HttpRange range : parsed) {
+            long start = range.getRangeStart(file.length());
+            long end = range.getRangeEnd(file.length());
+            if (start >= file.length() || start > end) {
+                continue;
+            }
+            ranges.add(new long[]{start, end});
+            total += end - start + 1;
+        }
+        if (ranges.isEmpty()) {
+            return null;
+        }
+        // Overlapping ranges asking for more than the file itself: just send the file once
+        return total > file.length() ? List.of() : ranges;
+    }
 
-        FileSystemResource resource = new FileSystemResource(file);
-        String contentType = MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    /**
+     * If-Range: only honour the Range header while the client's copy is still current
+     */
+    private boolean ifRangeMatches(HttpServletRequest request, ServedFile file) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // Strong comparison; weak validators never match
+            return ifRange.equals(file.etag());
+        }
         try {
-            String probe = java.nio.file.Files.probeContentType(filePath);
-            if (probe != null) contentType = probe;
-        } catch (Exception ignored) {}
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                .contentType(MediaType.parseMediaType(contentType))
-                .body(resource);
+            long since = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return since / 1000 == file.lastModified() / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void send(HttpServletRequest request, HttpServletResponse response,
+                      ServedFile file, long start, long count) throws IOException {
+        if (file.path() == null) {
+            try (InputStream in = open(file, start, start + count - 1)) {
+                in.transferTo(response.getOutputStream());
+            }
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            return;
+        }
+        // No sendfile (e.g. TLS): let the kernel/JDK move the bytes without a heap copy loop
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            transfer(channel, start, count, Channels.newChannel(response.getOutputStream()));
+        }
+    }
+
+    /**
+     * Stream a byte range from object storage; only the requested range is fetched
+     */
+    private InputStream open(ServedFile file, long start, long end) throws IOException {
+        return start == 0 && end == file.length() - 1
+                ? storageBackend.get(file.key())
+                : storageBackend.getRange(file.key(), start, end);
+    }
+
+    private void sendMultipart(HttpServletResponse response, ServedFile file,
+                               List<long[]> ranges, boolean head) throws IOException {
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long contentLength = 0;
+        for (long[] range : ranges) {
+            byte[] header = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + file.mediaType() + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": bytes " + range[0] + "-" + range[1] + "/" + file.length()
+                    + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(header);
+            contentLength += header.length + (range[1] - range[0] + 1);
+        }
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += closing.length;
+
+        response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if (head) {
+            return;
+        }
+
+        OutputStream out = response.getOutputStream();
+        if (file.path() == null) {
+            for (int i = 0; i < ranges.size(); i++) {
+                out.write(partHeaders.get(i));
+                try (InputStream in = open(file, ranges.get(i)[0], ranges.get(i)[1])) {
+                    in.transferTo(out);
+                }
+            }
+        } else {
+            WritableByteChannel target = Channels.newChannel(out);
+            try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+                for (int i = 0; i < ranges.size(); i++) {
+                    out.write(partHeaders.get(i));
+                    long[] range = ranges.get(i);
+                    transfer(channel, range[0], range[1] - range[0] + 1, target);
+                }
+            }
+        }
+        out.write(closing);
+    }
+
+    private void transfer(FileChannel channel, long position, long count, WritableByteChannel target) throws IOException {
+        while (count > 0) {
+            long written = channel.transferTo(position, count, target);
+            if (written <= 0) {
+                break;
+            }
+            position += written;
+            count -= written;
+        }
     }
 }
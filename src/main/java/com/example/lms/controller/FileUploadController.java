@@ -146,6 +146,7 @@ public class FileUploadController {
         }
 
         public static class SignedUrlResponseBuilder {
+            private String fileId;
             private String uploadUrl;
             private String fileUrl;
             private String fileName;
@@ -153,6 +154,7 @@ public class FileUploadController {
 
             public SignedUrlResponseBuilder uploadUrl(String uploadUrl) { this.uploadUrl = uploadUrl; return this; }
             public SignedUrlResponseBuilder fileUrl(String fileUrl) { this.fileUrl = fileUrl; return this; }
+            public SignedUrlResponseBuilder fileId(String fileId) { this.fileId = fileId; return this; }
             public SignedUrlResponseBuilder fileName(String fileName) { this.fileName = fileName; return this; }
             public SignedUrlResponseBuilder expiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; return this; }
 
@@ -160,7 +162,7 @@ public class FileUploadController {
                 SignedUrlResponse response = new SignedUrlResponse();
                 response.uploadUrl = this.uploadUrl;
                 response.fileUrl = this.fileUrl;
-                response.fileId = this.fileName;
+                response.fileId = this.fileId != null ? this.fileId : this.fileName;
                 response.expiresAt = this.expiresAt != null ? 
                     this.expiresAt.atZone(java.time.ZoneId.systemDefault()).toEpochSecond() : 0;
                 response.method = "PUT";
@@ -218,6 +220,7 @@ public class FileUploadController {
     }
 
     public static class FileUploadResponse {
+        private String fileId;
         private String fileName;
         private String originalFileName;
         private String fileUrl;
@@ -230,6 +233,7 @@ public class FileUploadController {
         }
 
         public static class FileUploadResponseBuilder {
+            private String fileId;
             private String fileName;
             private String originalFileName;
             private String fileUrl;
@@ -237,6 +241,7 @@ public class FileUploadController {
             private String contentType;
             private LocalDateTime uploadedAt;
 
+            public FileUploadResponseBuilder fileId(String fileId) { this.fileId = fileId; return this; }
             public FileUploadResponseBuilder fileName(String fileName) { this.fileName = fileName; return this; }
             public FileUploadResponseBuilder originalFileName(String originalFileName) { this.originalFileName = originalFileName; return this; }
             public FileUploadResponseBuilder fileUrl(String fileUrl) { this.fileUrl = fileUrl; return this; }
@@ -246,6 +251,7 @@ public class FileUploadController {
 
             public FileUploadResponse build() {
                 FileUploadResponse response = new FileUploadResponse();
+                response.fileId = this.fileId;
                 response.fileName = this.fileName;
                 response.originalFileName = this.originalFileName;
                 response.fileUrl = this.fileUrl;
@@ -257,6 +263,7 @@ public class FileUploadController {
         }
 
         // Getters
+        public String getFileId() { return fileId; }
         public String getFileName() { return fileName; }
         public String getOriginalFileName() { return originalFileName; }
         public String getFileUrl() { return fileUrl; }
@@ -7,6 +7,8 @@ import com.example.lms.service.LessonAssignmentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -50,6 +52,32 @@ public class LessonAssignmentController {
         }
     }
 
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
+    @Operation(summary = "Phân phối bài học cho nhiều học viên",
+            description = "Học viên chưa đăng ký khóa học sẽ được đăng ký; học viên đã được phân phối được bỏ qua")
+    public ResponseEntity<ApiResponse<BulkResult>> assignBulk(
+            @AuthenticationPrincipal User currentUser,
+            @Valid @RequestBody BulkAssignRequest request
+    ) {
+        try {
+            int assigned = service.assignLessonToStudents(request.getLessonId(), request.getStudentIds(), currentUser);
+            return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success(BulkResult.builder()
+                    .requested(request.getStudentIds().size())
+                    .assigned(assigned)
+                    .build()));
+        } catch (RuntimeException e) {
+            String msg = e.getMessage() != null ? e.getMessage() : "Có lỗi xảy ra";
+            if (msg.contains("Không tìm thấy")) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(msg));
+            }
+            if (msg.toLowerCase().contains("quyền")) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiResponse.error(msg));
+            }
+            return ResponseEntity.badRequest().body(ApiResponse.error(msg));
+        }
+    }
+
     @DeleteMapping
     @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
     @Operation(summary = "Hủy phân phối bài học cho học viên")
@@ -114,4 +142,19 @@ public class LessonAssignmentController {
         private String studentName;
         private java.time.Instant createdAt;
     }
+
+    @lombok.Data
+    public static class BulkAssignRequest {
+        @NotNull
+        private UUID lessonId;
+        @NotEmpty
+        private List<UUID> studentIds;
+    }
+
+    @lombok.Builder
+    @lombok.Data
+    public static class BulkResult {
+        private int requested;
+        private int assigned;
+    }
 }
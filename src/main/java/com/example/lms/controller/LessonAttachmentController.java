@@ -8,6 +8,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -121,6 +122,32 @@ public class LessonAttachmentController {
         }
     }
 
+    @PutMapping("/{lessonId}/attachments/order")
+    @Operation(summary = "Sắp xếp lại toàn bộ file đính kèm", description = "Danh sách ID file đính kèm của bài học theo thứ tự hiển thị mới")
+    public ResponseEntity<ApiResponse<List<AttachmentDetail>>> reorderAttachments(
+            @PathVariable UUID lessonId,
+            @Valid @RequestBody ReorderAttachmentsRequest request,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        try {
+            List<LessonAttachment> attachments = lessonAttachmentService.reorderAttachments(lessonId, currentUser, request.getAttachmentIds());
+            List<AttachmentDetail> details = attachments.stream()
+                    .map(this::convertToAttachmentDetail)
+                    .toList();
+
+            return ResponseEntity.ok(ApiResponse.success(details));
+        } catch (RuntimeException e) {
+            String msg = e.getMessage() != null ? e.getMessage() : "Có lỗi xảy ra";
+            if (msg.contains("Không tìm thấy")) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(msg));
+            }
+            if (msg.toLowerCase().contains("quyền")) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiResponse.error(msg));
+            }
+            return ResponseEntity.badRequest().body(ApiResponse.error(msg));
+        }
+    }
+
     // Helper method
     private AttachmentDetail convertToAttachmentDetail(LessonAttachment attachment) {
         return AttachmentDetail.builder()
@@ -209,4 +236,14 @@ public class LessonAttachmentController {
         public Integer getDisplayOrder() { return displayOrder; }
         public void setDisplayOrder(Integer displayOrder) { this.displayOrder = displayOrder; }
     }
+
+    public static class ReorderAttachmentsRequest {
+        @NotEmpty(message = "Danh sách file đính kèm không được để trống")
+        private List<UUID> attachmentIds;
+
+        public ReorderAttachmentsRequest() {}
+
+        public List<UUID> getAttachmentIds() { return attachmentIds; }
+        public void setAttachmentIds(List<UUID> attachmentIds) { this.attachmentIds = attachmentIds; }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.example.lms.controller;
+
+import com.example.lms.service.LocalStorageBackend;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * Target of the presigned URLs issued by {@link LocalStorageBackend}: the local-disk
+ * equivalent of PUT/GET on an S3 bucket, authorized by the URL signature alone.
+ */
+@RestController
+@RequestMapping(LocalStorageBackend.PRESIGN_PATH)
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalStorageController {
+
+    private static final String INCOMING_PREFIX = "incoming/";
+
+    private final LocalStorageBackend storageBackend;
+
+    @PutMapping("{*key}")
+    public ResponseEntity<Void> put(
+            @PathVariable String key,
+            @RequestParam long expires,
+            @RequestParam long length,
+            @RequestParam String signature,
+            HttpServletRequest request
+    ) throws IOException {
+        key = key.substring(1);
+        if (!key.startsWith(INCOMING_PREFIX)
+                || !storageBackend.verifyPresigned("PUT", key, expires, length, signature)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (request.getContentLengthLong() != length) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        storageBackend.put(key, request.getInputStream(), length, request.getContentType());
+        return ResponseEntity.ok().build();
+    }
+
+    @GetMapping("{*key}")
+    public ResponseEntity<Resource> get(
+            @PathVariable String key,
+            @RequestParam long expires,
+            @RequestParam String signature
+    ) throws IOException {
+        key = key.substring(1);
+        if (!storageBackend.verifyPresigned("GET", key, expires, -1, signature)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (!storageBackend.exists(key)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(new InputStreamResource(storageBackend.get(key)));
+    }
+}
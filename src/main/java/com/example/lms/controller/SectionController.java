@@ -3,6 +3,8 @@ package com.example.lms.controller;
 import com.example.lms.dto.ApiResponse;
 import com.example.lms.entity.Section;
 import com.example.lms.entity.User;
+import com.example.lms.service.DocumentExtractionJobService;
+import com.example.lms.service.DocumentParserService;
 import com.example.lms.service.SectionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -11,22 +13,28 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/api/v1/courses")
 @RequiredArgsConstructor
 @Tag(name = "Section Management", description = "API quản lý sections trong khóa học")
 @SecurityRequirement(name = "Bearer Authentication")
+@Slf4j
 public class SectionController {
 
     private final SectionService sectionService;
+    private final DocumentExtractionJobService documentExtractionJobService;
 
     @PostMapping("/{courseId}/sections")
     @Operation(summary = "Tạo section mới", description = "Giảng viên tạo section mới trong khóa học của mình")
@@ -52,6 +60,43 @@ public class SectionController {
         }
     }
 
+    @PostMapping("/{courseId}/sections/import")
+    @Operation(summary = "Nhập chương và bài học từ file Word",
+            description = "Mỗi Heading 1 của file .docx thành một section, mỗi Heading 2 thành một bài học; nội dung bên dưới thành nội dung bài học. Các section được thêm sau các section hiện có")
+    public ResponseEntity<ApiResponse<ImportResult>> importSections(
+            @PathVariable UUID courseId,
+            @AuthenticationPrincipal User currentUser,
+            @RequestParam("file") MultipartFile file
+    ) {
+        try {
+            // Ownership first: parsing takes one of the shared parser permits
+            sectionService.checkCanImport(courseId, currentUser);
+            List<DocumentParserService.OutlineSection> outline = documentExtractionJobService.extractOutlineNow(file);
+            List<Section> sections = sectionService.importOutline(courseId, currentUser, outline);
+            return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success(ImportResult.builder()
+                    .sectionsCreated(sections.size())
+                    .lessonsCreated(sections.stream().mapToInt(section -> section.getLessons().size()).sum())
+                    .sectionIds(sections.stream().map(Section::getId).toList())
+                    .build()));
+        } catch (TimeoutException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(ApiResponse.error("Hệ thống đang bận xử lý tài liệu khác, vui lòng thử lại sau"));
+        } catch (RuntimeException e) {
+            String msg = e.getMessage() != null ? e.getMessage() : "Có lỗi xảy ra";
+            if (msg.toLowerCase().contains("quyền")) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiResponse.error(msg));
+            }
+            if (msg.contains("Không tìm thấy")) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(msg));
+            }
+            return ResponseEntity.badRequest().body(ApiResponse.error(msg));
+        } catch (Exception e) {
+            log.error("Error importing sections from document", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Lỗi xử lý file: " + e.getMessage()));
+        }
+    }
+
     @PutMapping("/sections/{sectionId}")
     @Operation(summary = "Cập nhật section", description = "Giảng viên cập nhật section trong khóa học của mình")
     public ResponseEntity<ApiResponse<SectionDetail>> updateSection(
@@ -176,6 +221,14 @@ public class SectionController {
         public Instant getUpdatedAt() { return updatedAt; }
     }
 
+    @lombok.Builder
+    @lombok.Data
+    public static class ImportResult {
+        private int sectionsCreated;
+        private int lessonsCreated;
+        private List<UUID> sectionIds;
+    }
+
     public static class CreateSectionRequest {
         @NotBlank(message = "Tiêu đề section không được để trống")
         @Size(max = 255, message = "Tiêu đề section không được vượt quá 255 ký tự")
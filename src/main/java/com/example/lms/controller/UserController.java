@@ -1,6 +1,7 @@
 package com.example.lms.controller;
 
 import com.example.lms.dto.ApiResponse;
+import com.example.lms.dto.response.CursorPage;
 import com.example.lms.entity.User;
 import com.example.lms.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -34,26 +35,27 @@ public class UserController {
 
     @GetMapping
     @Operation(summary = "Lấy danh sách người dùng", description = "Admin lấy danh sách tất cả người dùng với phân trang")
-    public ResponseEntity<ApiResponse<Page<UserSummary>>> getAllUsers(
+    public ResponseEntity<ApiResponse<?>> getAllUsers(
             @Parameter(description = "Số trang (bắt đầu từ 1)") @RequestParam(defaultValue = "1") int page,
             @Parameter(description = "Số lượng item trên mỗi trang") @RequestParam(defaultValue = "10") int limit,
-            @Parameter(description = "Tìm kiếm theo tên hoặc email") @RequestParam(required = false) String search
+            @Parameter(description = "Tìm kiếm theo tên hoặc email") @RequestParam(required = false) String search,
+            @Parameter(description = "Phân trang bằng cursor: gửi cursor rỗng để lấy trang đầu, sau đó gửi nextCursor của trang trước (bỏ qua page)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Kèm tổng số item khi phân trang bằng cursor (thêm một truy vấn COUNT)") @RequestParam(defaultValue = "false") boolean withTotal
     ) {
         try {
+            if (cursor != null) {
+                CursorPage<User> users = userService.getAllUsers(cursor, limit, withTotal, search);
+                return ResponseEntity.ok(ApiResponse.success(users.map(this::convertToUserSummary)));
+            }
+            
             Pageable pageable = PageRequest.of(page - 1, limit);
             Page<User> users = userService.getAllUsers(pageable, search);
             
-            Page<UserSummary> userSummaries = users.map(user -> UserSummary.builder()
-                    .id(user.getId())
-                    .username(user.getUsername())
-                    .email(user.getEmail())
-                    .fullName(user.getFullName())
-                    .role(user.getRole().name())
-                    .enabled(user.getEnabled())
-                    .createdAt(user.getCreatedAt())
-                    .build());
+            Page<UserSummary> userSummaries = users.map(this::convertToUserSummary);
             
             return ResponseEntity.ok(ApiResponse.success(userSummaries));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Lỗi khi lấy danh sách người dùng: " + e.getMessage()));
@@ -144,6 +146,18 @@ public class UserController {
         }
     }
 
+    private UserSummary convertToUserSummary(User user) {
+        return UserSummary.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .fullName(user.getFullName())
+                .role(user.getRole().name())
+                .enabled(user.getEnabled())
+                .createdAt(user.getCreatedAt())
+                .build();
+    }
+
     // DTOs
     public static class UserSummary {
         private UUID id;
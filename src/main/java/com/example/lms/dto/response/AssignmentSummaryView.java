@@ -0,0 +1,31 @@
+package com.example.lms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Assignment list row read straight from the database (JPQL constructor expression),
+ * like {@link CourseSummaryView}: the course title and the submission counter are
+ * joined in, so listing assignments never loads submissions.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssignmentSummaryView {
+    
+    private UUID id;
+    private String title;
+    private String description;
+    private BigDecimal maxScore;
+    private LocalDateTime dueDate;
+    private UUID courseId;
+    private String courseTitle;
+    private int submissionsCount;
+    private Instant createdAt;
+}
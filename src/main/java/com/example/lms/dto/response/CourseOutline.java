@@ -0,0 +1,25 @@
+package com.example.lms.dto.response;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of a course's sections and lesson summaries, in display order.
+ * Shared between requests by {@code CourseOutlineService}; {@code version} changes
+ * with every section or lesson mutation of the course.
+ */
+public record CourseOutline(UUID courseId, long version, List<SectionOutline> sections) {
+
+    public CourseOutline {
+        sections = List.copyOf(sections);
+    }
+
+    public record SectionOutline(UUID id, String title, String description, Integer orderIndex,
+                                 List<LessonOutline> lessons) {
+        public SectionOutline {
+            lessons = List.copyOf(lessons);
+        }
+    }
+
+    public record LessonOutline(UUID id, String title, String description, Integer orderIndex) {}
+}
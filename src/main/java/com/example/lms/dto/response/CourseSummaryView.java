@@ -0,0 +1,29 @@
+package com.example.lms.dto.response;
+
+import com.example.lms.entity.Course;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Catalog row read straight from the database (JPQL constructor expression):
+ * the teacher name and the enrollment counter are joined in, so listing
+ * courses never loads the teacher or student entities.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseSummaryView {
+    
+    private UUID id;
+    private String code;
+    private String title;
+    private String description;
+    private Course.CourseStatus status;
+    private String teacherName;
+    private int enrolledCount;
+    private Instant createdAt;
+}
@@ -0,0 +1,36 @@
+package com.example.lms.dto.response;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list. Pass {@code nextCursor} back to get the
+ * following page; it is opaque to clients and null on the last page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasNext;
+    
+    // Only filled in when the caller asked for it (one more COUNT query)
+    private Long totalItems;
+    
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        return CursorPage.<R>builder()
+            .items(items.stream().<R>map(mapper).toList())
+            .nextCursor(nextCursor)
+            .hasNext(hasNext)
+            .totalItems(totalItems)
+            .build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.lms.dto.response;
+
+import com.example.lms.entity.DocumentExtractionJob;
+import lombok.Data;
+import lombok.Builder;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentExtractionJobResponse {
+    
+    private UUID jobId;
+    private DocumentExtractionJob.JobStatus status;
+    private String fileName;
+    private String errorMessage;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant completedAt;
+    
+    // Only filled in once the job has completed
+    private String content;
+    
+    public static DocumentExtractionJobResponse from(DocumentExtractionJob job) {
+        return DocumentExtractionJobResponse.builder()
+            .jobId(job.getId())
+            .status(job.getStatus())
+            .fileName(job.getFileName())
+            .errorMessage(job.getErrorMessage())
+            .createdAt(job.getCreatedAt())
+            .startedAt(job.getStartedAt())
+            .completedAt(job.getCompletedAt())
+            .content(job.getStatus() == DocumentExtractionJob.JobStatus.COMPLETED ? job.getContent() : null)
+            .build();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.lms.dto.response;
+
+import com.example.lms.entity.EnrollmentJob;
+import lombok.Data;
+import lombok.Builder;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnrollmentJobResponse {
+    
+    private UUID jobId;
+    private UUID courseId;
+    private EnrollmentJob.JobStatus status;
+    private String fileName;
+    private int totalProcessed;
+    private int successCount;
+    private int errorCount;
+    private String errorMessage;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant completedAt;
+    
+    // Only filled in once the job is finished
+    private BulkEnrollmentResponse result;
+    
+    public static EnrollmentJobResponse from(EnrollmentJob job) {
+        return EnrollmentJobResponse.builder()
+            .jobId(job.getId())
+            .courseId(job.getCourseId())
+            .status(job.getStatus())
+            .fileName(job.getFileName())
+            .totalProcessed(job.getTotalProcessed())
+            .successCount(job.getSuccessCount())
+            .errorCount(job.getErrorCount())
+            .errorMessage(job.getErrorMessage())
+            .createdAt(job.getCreatedAt())
+            .startedAt(job.getStartedAt())
+            .completedAt(job.getCompletedAt())
+            .result(job.isFinished() ? job.getResult() : null)
+            .build();
+    }
+}
@@ -24,7 +24,7 @@ public class AssignmentAttachment {
     private Assignment assignment;
     
     @Column(name = "file_id", nullable = false)
-    private String fileId;
+    private String fileId; // StoredFile id returned by the upload (FileUploadResponse.fileId)
     
     @Column(name = "file_name", nullable = false)
     private String fileName;
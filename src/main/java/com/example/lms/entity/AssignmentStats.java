@@ -0,0 +1,31 @@
+package com.example.lms.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Counters of an assignment, maintained like {@link CourseStats}
+ */
+@Entity
+@Table(name = "assignment_stats")
+@Immutable
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssignmentStats {
+
+    @Id
+    @Column(name = "assignment_id")
+    private UUID assignmentId;
+
+    @Column(name = "submissions_count", nullable = false)
+    private int submissionsCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
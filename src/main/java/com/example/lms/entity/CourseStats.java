@@ -0,0 +1,43 @@
+package com.example.lms.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Counters of a course. Read-only here: the values are only changed by the
+ * increments in {@code CourseStatsRepository} and by reconciliation.
+ */
+@Entity
+@Table(name = "course_stats")
+@Immutable
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseStats {
+
+    @Id
+    @Column(name = "course_id")
+    private UUID courseId;
+
+    @Column(name = "enrolled_count", nullable = false)
+    private int enrolledCount;
+
+    @Column(name = "sections_count", nullable = false)
+    private int sectionsCount;
+
+    @Column(name = "assignments_count", nullable = false)
+    private int assignmentsCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    // A course that has no row yet has no enrollments, sections or assignments
+    public static CourseStats empty(UUID courseId) {
+        return CourseStats.builder().courseId(courseId).build();
+    }
+}
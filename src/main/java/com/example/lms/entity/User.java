@@ -63,6 +63,11 @@ public class User implements UserDetails {
     @Builder.Default
     private Boolean enabled = true;
     
+    @Column(name = "token_version", nullable = false)
+    @Builder.Default
+    @JsonIgnore
+    private Integer tokenVersion = 0;
+    
     @Column(nullable = false)
     @Builder.Default
     private Instant createdAt = Instant.now();
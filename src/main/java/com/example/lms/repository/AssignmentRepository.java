@@ -1,5 +1,6 @@
 package com.example.lms.repository;
 
+import com.example.lms.dto.response.AssignmentSummaryView;
 import com.example.lms.entity.Assignment;
 import com.example.lms.entity.Course;
 import org.springframework.data.domain.Page;
@@ -28,6 +29,13 @@ public interface AssignmentRepository extends JpaRepository<Assignment, UUID> {
     
     List<Assignment> findByCourseOrderByCreatedAtAsc(Course course);
     
+    @Query(value = "SELECT new com.example.lms.dto.response.AssignmentSummaryView("
+            + "a.id, a.title, a.description, a.maxScore, a.dueDate, c.id, c.title, COALESCE(st.submissionsCount, 0), a.createdAt) "
+            + "FROM Assignment a JOIN a.course c LEFT JOIN AssignmentStats st ON st.assignmentId = a.id "
+            + "WHERE c.id = :courseId ORDER BY a.createdAt ASC, a.id ASC",
+           countQuery = "SELECT COUNT(a) FROM Assignment a WHERE a.course.id = :courseId")
+    Page<AssignmentSummaryView> findSummariesByCourseId(@Param("courseId") UUID courseId, Pageable pageable);
+    
     @Query("SELECT COUNT(a) FROM Assignment a WHERE a.course.id = :courseId")
     long countByCourseId(@Param("courseId") UUID courseId);
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.example.lms.repository;
+
+import com.example.lms.entity.AssignmentStats;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface AssignmentStatsRepository extends JpaRepository<AssignmentStats, UUID> {
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "assignment_stats"))
+    @Query(value = "INSERT INTO assignment_stats (assignment_id, submissions_count) VALUES (:assignmentId, GREATEST(:delta, 0)) " +
+                   "ON CONFLICT (assignment_id) DO UPDATE SET " +
+                   "submissions_count = GREATEST(assignment_stats.submissions_count + :delta, 0), updated_at = CURRENT_TIMESTAMP",
+           nativeQuery = true)
+    void addSubmissions(@Param("assignmentId") UUID assignmentId, @Param("delta") int delta);
+
+    // A student account is going away: its assignment_submissions rows cascade with it
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "assignment_stats"))
+    @Query(value = "UPDATE assignment_stats SET submissions_count = GREATEST(submissions_count - 1, 0), updated_at = CURRENT_TIMESTAMP " +
+                   "WHERE assignment_id IN (SELECT assignment_id FROM assignment_submissions WHERE student_id = :studentId)",
+           nativeQuery = true)
+    int removeStudent(@Param("studentId") UUID studentId);
+
+    // Reconciliation
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "assignment_stats"))
+    @Query(value = "INSERT INTO assignment_stats (assignment_id) SELECT id FROM assignments ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertMissing();
+
+    @Query(value = "SELECT assignment_id FROM assignment_stats WHERE assignment_id > :after ORDER BY assignment_id LIMIT :limit FOR UPDATE",
+           nativeQuery = true)
+    List<UUID> lockBatch(@Param("after") UUID after, @Param("limit") int limit);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "assignment_stats"))
+    @Query(value = "UPDATE assignment_stats st SET submissions_count = t.submissions_count, updated_at = CURRENT_TIMESTAMP " +
+                   "FROM (SELECT a.id, (SELECT COUNT(*) FROM assignment_submissions s WHERE s.assignment_id = a.id) AS submissions_count " +
+                   "FROM assignments a WHERE a.id IN (:assignmentIds)) t " +
+                   "WHERE st.assignment_id = t.id AND st.submissions_count <> t.submissions_count",
+           nativeQuery = true)
+    int reconcile(@Param("assignmentIds") Collection<UUID> assignmentIds);
+}
@@ -5,6 +5,7 @@ import com.example.lms.entity.AssignmentSubmission;
 import com.example.lms.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -12,11 +13,18 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface AssignmentSubmissionRepository extends JpaRepository<AssignmentSubmission, UUID> {
+public interface AssignmentSubmissionRepository extends JpaRepository<AssignmentSubmission, UUID>,
+        KeysetPagingRepository<AssignmentSubmission> {
     
     boolean existsByAssignmentAndStudent(Assignment assignment, User student);
     
+    @EntityGraph(attributePaths = {"student", "assignment"})
     Optional<AssignmentSubmission> findByAssignmentAndStudent(Assignment assignment, User student);
     
+    // Submission detail after grading: the controller shows the student and assignment titles
+    @EntityGraph(attributePaths = {"student", "assignment"})
+    Optional<AssignmentSubmission> findWithStudentAndAssignmentById(UUID id);
+    
+    @EntityGraph(attributePaths = "student")
     Page<AssignmentSubmission> findByAssignment(Assignment assignment, Pageable pageable);
 }
\ No newline at end of file
@@ -1,24 +1,79 @@
 package com.example.lms.repository;
 
+import com.example.lms.dto.response.CourseSummaryView;
 import com.example.lms.entity.Course;
 import com.example.lms.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface CourseRepository extends JpaRepository<Course, UUID> {
+public interface CourseRepository extends JpaRepository<Course, UUID>, KeysetPagingRepository<Course> {
+    
+    // Catalog projections: one statement per page, the enrollment count comes from course_stats
+    String COURSE_SUMMARY_SELECT = "SELECT new com.example.lms.dto.response.CourseSummaryView("
+            + "c.id, c.code, c.title, c.description, c.status, t.fullName, COALESCE(cs.enrolledCount, 0), c.createdAt) "
+            + "FROM Course c JOIN c.teacher t LEFT JOIN CourseStats cs ON cs.courseId = c.id ";
+    
+    @Query(value = COURSE_SUMMARY_SELECT + "WHERE c.status = :status",
+           countQuery = "SELECT COUNT(c) FROM Course c WHERE c.status = :status")
+    Page<CourseSummaryView> findSummariesByStatus(@Param("status") Course.CourseStatus status, Pageable pageable);
+    
+    @Query(COURSE_SUMMARY_SELECT + "WHERE c.id IN :ids")
+    List<CourseSummaryView> findSummariesByIdIn(@Param("ids") Collection<UUID> ids);
+    
+    // Ranked search (V14 indexes): word match on search_vector, substring and typo match on the title
+    // trigrams, substring match on the code. Returns [id, score] rows, best first.
+    String COURSE_SEARCH_FROM = "FROM courses c WHERE c.status = :status AND ("
+            + "c.search_vector @@ plainto_tsquery('simple', search_normalize(:query)) "
+            + "OR search_normalize(c.title) LIKE '%' || search_normalize(:query) || '%' "
+            + "OR search_normalize(c.title) % search_normalize(:query) "
+            + "OR lower(c.code) LIKE '%' || lower(:query) || '%')";
+    String COURSE_SEARCH_SCORE = "CAST(ts_rank(c.search_vector, plainto_tsquery('simple', search_normalize(:query))) "
+            + "+ similarity(search_normalize(c.title), search_normalize(:query)) AS DOUBLE PRECISION)";
+    
+    @Query(value = "SELECT c.id, " + COURSE_SEARCH_SCORE + " AS score " + COURSE_SEARCH_FROM + " ORDER BY score DESC, c.id",
+           countQuery = "SELECT COUNT(*) " + COURSE_SEARCH_FROM,
+           nativeQuery = true)
+    Page<Object[]> searchByStatus(@Param("status") String status, @Param("query") String query, Pageable pageable);
+    
+    @Query(value = "SELECT r.id, r.score FROM (SELECT c.id, " + COURSE_SEARCH_SCORE + " AS score " + COURSE_SEARCH_FROM + ") r "
+                   + "WHERE r.score < :afterScore OR (r.score = :afterScore AND r.id > :afterId) "
+                   + "ORDER BY r.score DESC, r.id LIMIT :limit",
+           nativeQuery = true)
+    List<Object[]> searchByStatusAfter(@Param("status") String status, @Param("query") String query,
+                                       @Param("afterScore") double afterScore, @Param("afterId") UUID afterId,
+                                       @Param("limit") int limit);
+    
+    @Query(value = COURSE_SUMMARY_SELECT + "WHERE t.id = :teacherId",
+           countQuery = "SELECT COUNT(c) FROM Course c WHERE c.teacher.id = :teacherId")
+    Page<CourseSummaryView> findSummariesByTeacherId(@Param("teacherId") UUID teacherId, Pageable pageable);
+    
+    @Query(value = COURSE_SUMMARY_SELECT + "JOIN c.enrolledStudents s WHERE s.id = :studentId",
+           countQuery = "SELECT COUNT(c) FROM Course c JOIN c.enrolledStudents s WHERE s.id = :studentId")
+    Page<CourseSummaryView> findSummariesByStudentId(@Param("studentId") UUID studentId, Pageable pageable);
     
     Optional<Course> findByCode(String code);
     
+    // Course detail: the teacher is read with the course, the controller shows its name
+    @EntityGraph(attributePaths = "teacher")
+    Optional<Course> findWithTeacherById(UUID id);
+    
+    // Admin listings show the teacher of every row: loaded by the page query, not one select per row
+    @Override
+    @EntityGraph(attributePaths = "teacher")
+    Page<Course> findAll(Pageable pageable);
+    
     List<Course> findByTeacher(User teacher);
     
     @Query("SELECT c FROM Course c LEFT JOIN FETCH c.teacher WHERE c.status = :status")
@@ -49,8 +104,10 @@ public interface CourseRepository extends JpaRepository<Course, UUID> {
     
     Page<Course> findByEnrolledStudentsContaining(User student, Pageable pageable);
     
+    @EntityGraph(attributePaths = "teacher")
     Page<Course> findByStatusAndTitleContainingIgnoreCase(Course.CourseStatus status, String title, Pageable pageable);
     
+    @EntityGraph(attributePaths = "teacher")
     Page<Course> findByTitleContainingIgnoreCase(String title, Pageable pageable);
     
     long countByTeacherAndStatusIn(User teacher, List<Course.CourseStatus> statuses);
@@ -0,0 +1,76 @@
+package com.example.lms.repository;
+
+import com.example.lms.entity.CourseStats;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface CourseStatsRepository extends JpaRepository<CourseStats, UUID> {
+
+    // Increments run in the caller's transaction and lock the row until it commits
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "course_stats"))
+    @Query(value = "INSERT INTO course_stats (course_id, enrolled_count) VALUES (:courseId, GREATEST(:delta, 0)) " +
+                   "ON CONFLICT (course_id) DO UPDATE SET " +
+                   "enrolled_count = GREATEST(course_stats.enrolled_count + :delta, 0), updated_at = CURRENT_TIMESTAMP",
+           nativeQuery = true)
+    void addEnrollments(@Param("courseId") UUID courseId, @Param("delta") int delta);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "course_stats"))
+    @Query(value = "INSERT INTO course_stats (course_id, sections_count) VALUES (:courseId, GREATEST(:delta, 0)) " +
+                   "ON CONFLICT (course_id) DO UPDATE SET " +
+                   "sections_count = GREATEST(course_stats.sections_count + :delta, 0), updated_at = CURRENT_TIMESTAMP",
+           nativeQuery = true)
+    void addSections(@Param("courseId") UUID courseId, @Param("delta") int delta);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "course_stats"))
+    @Query(value = "INSERT INTO course_stats (course_id, assignments_count) VALUES (:courseId, GREATEST(:delta, 0)) " +
+                   "ON CONFLICT (course_id) DO UPDATE SET " +
+                   "assignments_count = GREATEST(course_stats.assignments_count + :delta, 0), updated_at = CURRENT_TIMESTAMP",
+           nativeQuery = true)
+    void addAssignments(@Param("courseId") UUID courseId, @Param("delta") int delta);
+
+    // A student account is going away: its course_enrollments rows cascade with it
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "course_stats"))
+    @Query(value = "UPDATE course_stats SET enrolled_count = GREATEST(enrolled_count - 1, 0), updated_at = CURRENT_TIMESTAMP " +
+                   "WHERE course_id IN (SELECT course_id FROM course_enrollments WHERE student_id = :studentId)",
+           nativeQuery = true)
+    int removeStudent(@Param("studentId") UUID studentId);
+
+    // Reconciliation
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "course_stats"))
+    @Query(value = "INSERT INTO course_stats (course_id) SELECT id FROM courses ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertMissing();
+
+    @Query(value = "SELECT course_id FROM course_stats WHERE course_id > :after ORDER BY course_id LIMIT :limit FOR UPDATE",
+           nativeQuery = true)
+    List<UUID> lockBatch(@Param("after") UUID after, @Param("limit") int limit);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "course_stats"))
+    @Query(value = "UPDATE course_stats cs SET enrolled_count = t.enrolled_count, sections_count = t.sections_count, " +
+                   "assignments_count = t.assignments_count, updated_at = CURRENT_TIMESTAMP " +
+                   "FROM (SELECT c.id, " +
+                   "(SELECT COUNT(*) FROM course_enrollments e WHERE e.course_id = c.id) AS enrolled_count, " +
+                   "(SELECT COUNT(*) FROM sections s WHERE s.course_id = c.id) AS sections_count, " +
+                   "(SELECT COUNT(*) FROM assignments a WHERE a.course_id = c.id) AS assignments_count " +
+                   "FROM courses c WHERE c.id IN (:courseIds)) t " +
+                   "WHERE cs.course_id = t.id AND (cs.enrolled_count, cs.sections_count, cs.assignments_count) " +
+                   "IS DISTINCT FROM (t.enrolled_count, t.sections_count, t.assignments_count)",
+           nativeQuery = true)
+    int reconcile(@Param("courseIds") Collection<UUID> courseIds);
+}
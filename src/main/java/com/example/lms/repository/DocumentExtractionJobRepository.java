@@ -0,0 +1,15 @@
+package com.example.lms.repository;
+
+import com.example.lms.entity.DocumentExtractionJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface DocumentExtractionJobRepository extends JpaRepository<DocumentExtractionJob, UUID> {
+
+    List<DocumentExtractionJob> findByStatusInOrderByCreatedAtAsc(Collection<DocumentExtractionJob.JobStatus> statuses);
+}
@@ -0,0 +1,33 @@
+package com.example.lms.repository;
+
+import com.example.lms.entity.FileBlob;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FileBlobRepository extends JpaRepository<FileBlob, String> {
+
+    // Transaction-scoped lock per digest: serializes add/remove of references with blob deletion
+    @Query(value = "SELECT COUNT(*) FROM (SELECT pg_advisory_xact_lock(hashtextextended(:sha256, 0))) AS l", nativeQuery = true)
+    long lockBlob(@Param("sha256") String sha256);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "file_blobs"))
+    @Query(value = "INSERT INTO file_blobs (sha256, file_size, ref_count) VALUES (:sha256, :fileSize, 1) " +
+                   "ON CONFLICT (sha256) DO UPDATE SET ref_count = file_blobs.ref_count + 1", nativeQuery = true)
+    void addReference(@Param("sha256") String sha256, @Param("fileSize") long fileSize);
+
+    @Modifying
+    @Query("UPDATE FileBlob b SET b.refCount = b.refCount - 1 WHERE b.sha256 = :sha256")
+    int removeReference(@Param("sha256") String sha256);
+
+    @Modifying
+    @Query("DELETE FROM FileBlob b WHERE b.sha256 = :sha256 AND b.refCount <= 0")
+    int deleteIfUnreferenced(@Param("sha256") String sha256);
+}
@@ -0,0 +1,124 @@
+package com.example.lms.repository;
+
+import com.example.lms.dto.response.CursorPage;
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.data.util.DirectFieldAccessFallbackBeanWrapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Base class of all repositories (see {@code JpaConfig}). Adds the keyset query behind
+ * {@link KeysetPagingRepository} to {@link SimpleJpaRepository}:
+ * {@code WHERE created_at < :c OR (created_at = :c AND id < :id) ORDER BY created_at DESC, id DESC},
+ * which reads one index range per page instead of skipping OFFSET rows.
+ */
+public class KeysetJpaRepository<T, ID> extends SimpleJpaRepository<T, ID> implements KeysetPagingRepository<T> {
+
+    private static final String CREATED_AT = "createdAt";
+    private static final String ID = "id";
+
+    private final EntityManager entityManager;
+
+    public KeysetJpaRepository(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
+        super(entityInformation, entityManager);
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public CursorPage<T> findKeysetPage(Specification<T> filter, String cursor, int limit, boolean withTotal) {
+        return findKeysetPage(filter, cursor, limit, withTotal, new String[0]);
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public CursorPage<T> findKeysetPage(Specification<T> filter, String cursor, int limit, boolean withTotal, String... fetch) {
+        KeysetPagingRepository.checkLimit(limit);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(getDomainClass());
+        Root<T> root = query.from(getDomainClass());
+        Path<Comparable> createdAt = root.get(CREATED_AT);
+        Path<UUID> id = root.get(ID);
+
+        List<Predicate> where = new ArrayList<>();
+        if (filter != null) {
+            Predicate predicate = filter.toPredicate(root, query, cb);
+            if (predicate != null) {
+                where.add(predicate);
+            }
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            Object[] after = decode(cursor, createdAt.getJavaType());
+            Comparable afterCreatedAt = (Comparable) after[0];
+            where.add(cb.or(
+                    cb.lessThan(createdAt, afterCreatedAt),
+                    cb.and(cb.equal(createdAt, afterCreatedAt), cb.lessThan(id, (UUID) after[1]))));
+        }
+        query.select(root)
+                .where(where.toArray(Predicate[]::new))
+                .orderBy(cb.desc(createdAt), cb.desc(id));
+
+        // One extra row tells whether another page follows
+        TypedQuery<T> page = entityManager.createQuery(query).setMaxResults(limit + 1);
+        if (fetch.length > 0) {
+            EntityGraph<T> graph = entityManager.createEntityGraph(getDomainClass());
+            graph.addAttributeNodes(fetch);
+            page.setHint(SpecHints.HINT_SPEC_LOAD_GRAPH, graph);
+        }
+        List<T> rows = page.getResultList();
+        boolean hasNext = rows.size() > limit;
+        List<T> items = hasNext ? new ArrayList<>(rows.subList(0, limit)) : rows;
+
+        return CursorPage.<T>builder()
+                .items(items)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? encode(items.get(items.size() - 1)) : null)
+                .totalItems(withTotal ? (filter != null ? count(filter) : count()) : null)
+                .build();
+    }
+
+    private String encode(T last) {
+        Object createdAt = new DirectFieldAccessFallbackBeanWrapper(last).getPropertyValue(CREATED_AT);
+        Object id = new DirectFieldAccessFallbackBeanWrapper(last).getPropertyValue(ID);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return [createdAt, id]
+     */
+    private Object[] decode(String cursor, Class<?> createdAtType) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf('|');
+            String createdAt = value.substring(0, separator);
+            UUID id = UUID.fromString(value.substring(separator + 1));
+            if (createdAtType == Instant.class) {
+                return new Object[]{Instant.parse(createdAt), id};
+            }
+            if (createdAtType == LocalDateTime.class) {
+                return new Object[]{LocalDateTime.parse(createdAt), id};
+            }
+            throw new IllegalStateException("Unsupported createdAt type " + createdAtType + " on " + getDomainClass());
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor không hợp lệ");
+        }
+    }
+}
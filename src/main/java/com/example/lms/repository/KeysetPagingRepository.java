@@ -0,0 +1,43 @@
+package com.example.lms.repository;
+
+import com.example.lms.dto.response.CursorPage;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.repository.NoRepositoryBean;
+
+/**
+ * Repository fragment for keyset (cursor) pagination, newest first by {@code (createdAt, id)}.
+ * Implemented once for every entity by {@link KeysetJpaRepository}; a repository opts in by
+ * extending this interface. The entity needs {@code createdAt} and {@code id} attributes.
+ */
+@NoRepositoryBean
+public interface KeysetPagingRepository<T> {
+
+    /**
+     * Largest page a caller may ask for
+     */
+    int MAX_LIMIT = 100;
+
+    /**
+     * @param filter    restricts the rows (null for all)
+     * @param cursor    {@link CursorPage#getNextCursor()} of the previous page, null or blank for the first page
+     * @param limit     page size, 1 to {@link #MAX_LIMIT}
+     * @param withTotal also count all rows matching {@code filter}; that is an extra query
+     * @throws IllegalArgumentException if {@code limit} or {@code cursor} is invalid
+     */
+    CursorPage<T> findKeysetPage(Specification<T> filter, String cursor, int limit, boolean withTotal);
+
+    /**
+     * Same page, with the given to-one associations (e.g. {@code "teacher"}) loaded by the
+     * page query itself, for callers that read them after the transaction has ended
+     */
+    CursorPage<T> findKeysetPage(Specification<T> filter, String cursor, int limit, boolean withTotal, String... fetch);
+
+    /**
+     * @throws IllegalArgumentException unless {@code 1 <= limit <= MAX_LIMIT}
+     */
+    static void checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Số lượng item trên mỗi trang phải từ 1 đến " + MAX_LIMIT);
+        }
+    }
+}
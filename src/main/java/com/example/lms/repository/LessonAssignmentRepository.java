@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,7 +14,7 @@ import java.util.UUID;
 @Repository
 public interface LessonAssignmentRepository extends JpaRepository<LessonAssignment, UUID> {
 
-    @Query("SELECT la FROM LessonAssignment la WHERE la.lesson.id = :lessonId")
+    @Query("SELECT la FROM LessonAssignment la JOIN FETCH la.student WHERE la.lesson.id = :lessonId")
     List<LessonAssignment> findByLessonId(@Param("lessonId") UUID lessonId);
 
     @Query("SELECT la FROM LessonAssignment la WHERE la.student.id = :studentId")
@@ -22,5 +23,8 @@ public interface LessonAssignmentRepository extends JpaRepository<LessonAssignme
     @Query("SELECT la FROM LessonAssignment la WHERE la.lesson.id = :lessonId AND la.student.id = :studentId")
     Optional<LessonAssignment> findByLessonIdAndStudentId(@Param("lessonId") UUID lessonId, @Param("studentId") UUID studentId);
 
+    @Query("SELECT la.student.id FROM LessonAssignment la WHERE la.lesson.id = :lessonId AND la.student.id IN :studentIds")
+    List<UUID> findAssignedStudentIds(@Param("lessonId") UUID lessonId, @Param("studentIds") Collection<UUID> studentIds);
+
     long deleteByLesson_IdAndStudent_Id(UUID lessonId, UUID studentId);
 }
@@ -1,9 +1,12 @@
 package com.example.lms.repository;
 
 import com.example.lms.entity.LessonAttachment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -13,6 +16,8 @@ import java.util.UUID;
 @Repository
 public interface LessonAttachmentRepository extends JpaRepository<LessonAttachment, UUID> {
 
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "lms-content-queries")})
     List<LessonAttachment> findByLessonIdOrderByDisplayOrderAsc(UUID lessonId);
 
     List<LessonAttachment> findByLessonIdAndFileTypeOrderByDisplayOrderAsc(UUID lessonId, String fileType);
@@ -28,6 +33,8 @@ public interface LessonAttachmentRepository extends JpaRepository<LessonAttachme
     @Query("UPDATE LessonAttachment a SET a.displayOrder = :displayOrder WHERE a.id = :attachmentId")
     void updateDisplayOrder(@Param("attachmentId") UUID attachmentId, @Param("displayOrder") Integer displayOrder);
 
+    boolean existsByFileUrl(String fileUrl);
+
     @Query("SELECT COUNT(a) FROM LessonAttachment a WHERE a.lesson.id = :lessonId")
     long countByLessonId(@Param("lessonId") UUID lessonId);
 
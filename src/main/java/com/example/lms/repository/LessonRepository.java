@@ -2,11 +2,16 @@ package com.example.lms.repository;
 
 import com.example.lms.entity.Lesson;
 import com.example.lms.entity.Section;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -15,8 +20,16 @@ public interface LessonRepository extends JpaRepository<Lesson, UUID> {
     @Query("SELECT COALESCE(MAX(l.orderIndex), 0) FROM Lesson l WHERE l.section = :section")
     int findMaxOrderIndexBySection(@Param("section") Section section);
 
-    java.util.List<Lesson> findBySectionIdOrderByOrderIndexAsc(UUID sectionId);
+    // Lesson detail: section, course and attachments in one statement
+    @EntityGraph(attributePaths = {"section", "section.course", "attachments"})
+    Optional<Lesson> findWithContextById(UUID id);
 
-    @Query("SELECT l FROM Lesson l WHERE l.section.course.id = :courseId ORDER BY l.orderIndex ASC")
+    // Listings read the section's course id, so the section is fetched with the lessons
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "lms-content-queries")})
+    @Query("SELECT l FROM Lesson l JOIN FETCH l.section s WHERE s.id = :sectionId ORDER BY l.orderIndex ASC")
+    java.util.List<Lesson> findBySectionIdOrderByOrderIndexAsc(@Param("sectionId") UUID sectionId);
+
+    @Query("SELECT l FROM Lesson l JOIN FETCH l.section s WHERE s.course.id = :courseId ORDER BY l.orderIndex ASC")
     java.util.List<Lesson> findByCourseIdOrderByOrderIndexAsc(@Param("courseId") UUID courseId);
 }
\ No newline at end of file
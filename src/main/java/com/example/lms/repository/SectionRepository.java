@@ -1,23 +1,44 @@
 package com.example.lms.repository;
 
 import com.example.lms.entity.Section;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface SectionRepository extends JpaRepository<Section, UUID> {
     
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "lms-content-queries")})
     List<Section> findByCourseIdOrderByOrderIndexAsc(UUID courseId);
     
+    // Section update: the response shows the course title and the lesson count
+    @EntityGraph(attributePaths = {"course", "lessons"})
+    Optional<Section> findWithCourseAndLessonsById(UUID id);
+    
+    // Course outline in one statement: [section id, title, description, order, lesson id, title, description, order],
+    // lesson columns null for an empty section
+    @Query("SELECT s.id, s.title, s.description, s.orderIndex, l.id, l.title, l.description, l.orderIndex "
+            + "FROM Section s LEFT JOIN s.lessons l WHERE s.course.id = :courseId "
+            + "ORDER BY s.orderIndex ASC, s.id ASC, l.orderIndex ASC, l.id ASC")
+    List<Object[]> findOutlineRows(@Param("courseId") UUID courseId);
+    
     @Query("SELECT s FROM Section s WHERE s.course.id = :courseId AND s.course.teacher.id = :teacherId")
     List<Section> findByCourseIdAndTeacherId(@Param("courseId") UUID courseId, @Param("teacherId") UUID teacherId);
     
     boolean existsByCourseIdAndTitle(UUID courseId, String title);
+
+    @Query("SELECT s.title FROM Section s WHERE s.course.id = :courseId")
+    List<String> findTitlesByCourseId(@Param("courseId") UUID courseId);
     
     @Query("SELECT COALESCE(MAX(s.orderIndex), 0) FROM Section s WHERE s.course = :course")
     int findMaxOrderIndexByCourse(@Param("course") com.example.lms.entity.Course course);
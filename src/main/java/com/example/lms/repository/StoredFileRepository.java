@@ -0,0 +1,14 @@
+package com.example.lms.repository;
+
+import com.example.lms.entity.StoredFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface StoredFileRepository extends JpaRepository<StoredFile, UUID> {
+
+    Optional<StoredFile> findByPath(String path);
+}
@@ -1,20 +1,25 @@
 package com.example.lms.repository;
 
 import com.example.lms.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, UUID> {
+public interface UserRepository extends JpaRepository<User, UUID>, KeysetPagingRepository<User> {
     
     Optional<User> findByUsername(String username);
     
@@ -44,6 +49,29 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     
     Page<User> findByRole(User.Role role, Pageable pageable);
     
+    // Ranked search (V14 trigram indexes) on name, email and username; an empty role matches all roles.
+    // Returns [id, score] rows, best first.
+    String USER_SEARCH_FROM = "FROM users u WHERE (:role = '' OR u.role = :role) AND ("
+            + "search_normalize(u.full_name) LIKE '%' || search_normalize(:query) || '%' "
+            + "OR search_normalize(u.full_name) % search_normalize(:query) "
+            + "OR lower(u.email) LIKE '%' || lower(:query) || '%' "
+            + "OR lower(u.username) LIKE '%' || lower(:query) || '%')";
+    String USER_SEARCH_SCORE = "CAST(GREATEST(similarity(search_normalize(u.full_name), search_normalize(:query)), "
+            + "similarity(lower(u.email), lower(:query)), similarity(lower(u.username), lower(:query))) AS DOUBLE PRECISION)";
+    
+    @Query(value = "SELECT u.id, " + USER_SEARCH_SCORE + " AS score " + USER_SEARCH_FROM + " ORDER BY score DESC, u.id",
+           countQuery = "SELECT COUNT(*) " + USER_SEARCH_FROM,
+           nativeQuery = true)
+    Page<Object[]> search(@Param("role") String role, @Param("query") String query, Pageable pageable);
+    
+    @Query(value = "SELECT r.id, r.score FROM (SELECT u.id, " + USER_SEARCH_SCORE + " AS score " + USER_SEARCH_FROM + ") r "
+                   + "WHERE r.score < :afterScore OR (r.score = :afterScore AND r.id > :afterId) "
+                   + "ORDER BY r.score DESC, r.id LIMIT :limit",
+           nativeQuery = true)
+    List<Object[]> searchAfter(@Param("role") String role, @Param("query") String query,
+                               @Param("afterScore") double afterScore, @Param("afterId") UUID afterId,
+                               @Param("limit") int limit);
+    
     Page<User> findByRoleAndEmailContainingIgnoreCaseOrRoleAndFullNameContainingIgnoreCase(
             User.Role role1, String email, User.Role role2, String fullName, Pageable pageable);
     
@@ -52,6 +80,32 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     // Method for enrollment by email only
     Optional<User> findByEmailAndRole(String email, User.Role role);
     
+    @Query("SELECT u.id, u.tokenVersion FROM User u WHERE u.tokenVersion > 0")
+    List<Object[]> findRevokedTokenVersions();
+    
     @Query("SELECT CASE WHEN COUNT(ce) > 0 THEN true ELSE false END FROM User u JOIN u.enrolledCourses ce WHERE u.id = :studentId AND ce.id = :courseId")
     boolean existsByCourseEnrollment(@Param("courseId") UUID courseId, @Param("studentId") UUID studentId);
+    
+    // Course ids a student is enrolled in (student_id index), see CourseAccessService
+    @Query(value = "SELECT course_id FROM course_enrollments WHERE student_id = :studentId", nativeQuery = true)
+    List<UUID> findEnrolledCourseIds(@Param("studentId") UUID studentId);
+    
+    // Set-based enrollment (bulk import): resolve, filter and insert whole batches at once
+    @Query("SELECT u.id, u.email FROM User u WHERE u.email IN :emails AND u.role = :role")
+    List<Object[]> findIdsByEmailInAndRole(@Param("emails") Collection<String> emails, @Param("role") User.Role role);
+    
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids AND u.role = :role")
+    List<UUID> findIdsByIdInAndRole(@Param("ids") Collection<UUID> ids, @Param("role") User.Role role);
+    
+    @Query(value = "SELECT student_id FROM course_enrollments WHERE course_id = :courseId AND student_id IN (:studentIds)",
+           nativeQuery = true)
+    List<UUID> findEnrolledStudentIds(@Param("courseId") UUID courseId, @Param("studentIds") Collection<UUID> studentIds);
+    
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "course_enrollments"))
+    @Query(value = "INSERT INTO course_enrollments (course_id, student_id) " +
+                   "SELECT :courseId, u.id FROM users u WHERE u.id IN (:studentIds) " +
+                   "ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertEnrollments(@Param("courseId") UUID courseId, @Param("studentIds") Collection<UUID> studentIds);
 }
\ No newline at end of file
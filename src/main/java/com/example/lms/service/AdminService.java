@@ -1,5 +1,6 @@
 package com.example.lms.service;
 
+import com.example.lms.dto.response.CursorPage;
 import com.example.lms.entity.Course;
 import com.example.lms.entity.User;
 import com.example.lms.repository.AssignmentRepository;
@@ -24,6 +25,11 @@ public class AdminService {
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
     private final AssignmentRepository assignmentRepository;
+    private final TokenVersionService tokenVersionService;
+    private final CourseStatsService courseStatsService;
+    private final SearchService searchService;
+    private final CourseAccessService courseAccessService;
+    private final CourseOutlineService courseOutlineService;
 
     public Map<String, Object> getAnalytics() {
         Map<String, Object> analytics = new HashMap<>();
@@ -93,13 +99,7 @@ public class AdminService {
 
     public Page<User> getAllUsers(String search, User.Role role, Pageable pageable) {
         if (search != null && !search.trim().isEmpty()) {
-            if (role != null) {
-                return userRepository.findByRoleAndEmailContainingIgnoreCaseOrRoleAndFullNameContainingIgnoreCase(
-                    role, search, role, search, pageable);
-            } else {
-                return userRepository.findByEmailContainingIgnoreCaseOrFullNameContainingIgnoreCase(
-                    search, search, pageable);
-            }
+            return searchService.searchUsers(role, search, pageable);
         } else {
             if (role != null) {
                 return userRepository.findByRole(role, pageable);
@@ -109,6 +109,13 @@ public class AdminService {
         }
     }
 
+    public CursorPage<User> searchUsers(String search, User.Role role, String cursor, int limit) {
+        if (search == null || search.trim().isEmpty()) {
+            throw new RuntimeException("Từ khóa tìm kiếm không được để trống");
+        }
+        return searchService.searchUsers(role, search, cursor, limit);
+    }
+
     public void deleteUser(UUID userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng với ID: " + userId));
@@ -123,7 +130,10 @@ public class AdminService {
             throw new RuntimeException("Không thể xóa người dùng có khóa học đang hoạt động");
         }
 
+        courseStatsService.removeStudent(userId);
         userRepository.delete(user);
+        tokenVersionService.forget(userId);
+        courseAccessService.evict(userId);
     }
 
     public User updateUserRole(UUID userId, com.example.lms.controller.AdminController.UpdateUserRoleRequest request) {
@@ -131,6 +141,7 @@ public class AdminService {
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng với ID: " + userId));
         
         user.setRole(request.getRole());
+        tokenVersionService.revoke(user);
         return userRepository.save(user);
     }
 
@@ -139,9 +150,27 @@ public class AdminService {
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng với ID: " + userId));
         
         user.setEnabled(!user.isEnabled());
+        tokenVersionService.revoke(user);
         userRepository.save(user);
     }
 
+    /**
+     * Keyset-paginated variant of {@link #getAllCourses(String, Course.CourseStatus, Pageable)}, newest first
+     */
+    public CursorPage<Course> getAllCourses(String search, Course.CourseStatus status, String cursor, int limit, boolean withTotal) {
+        String title = search != null && !search.trim().isEmpty() ? "%" + search.trim().toLowerCase() + "%" : null;
+        return courseRepository.findKeysetPage((root, query, cb) -> {
+            java.util.List<jakarta.persistence.criteria.Predicate> predicates = new java.util.ArrayList<>();
+            if (status != null) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            if (title != null) {
+                predicates.add(cb.like(cb.lower(root.get("title")), title));
+            }
+            return cb.and(predicates.toArray(jakarta.persistence.criteria.Predicate[]::new));
+        }, cursor, limit, withTotal, "teacher");
+    }
+
     public Page<Course> getAllCourses(String search, Course.CourseStatus status, Pageable pageable) {
         if (search != null && !search.trim().isEmpty()) {
             if (status != null) {
@@ -168,6 +197,7 @@ public class AdminService {
         }
 
         courseRepository.delete(course);
+        courseOutlineService.forget(courseId);
     }
 
     public void approveCourse(UUID courseId, User currentUser) {
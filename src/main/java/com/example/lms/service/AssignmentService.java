@@ -1,5 +1,7 @@
 package com.example.lms.service;
 
+import com.example.lms.dto.response.AssignmentSummaryView;
+import com.example.lms.dto.response.CursorPage;
 import com.example.lms.entity.*;
 import com.example.lms.repository.AssignmentRepository;
 import com.example.lms.repository.AssignmentSubmissionRepository;
@@ -22,6 +24,8 @@ public class AssignmentService {
     private final AssignmentRepository assignmentRepository;
     private final AssignmentSubmissionRepository submissionRepository;
     private final CourseRepository courseRepository;
+    private final CourseStatsService courseStatsService;
+    private final CourseAccessService courseAccessService;
 
     public Assignment createAssignment(UUID courseId, User currentUser, com.example.lms.controller.AssignmentController.CreateAssignmentRequest request) {
         Course course = courseRepository.findById(courseId)
@@ -46,7 +50,9 @@ public class AssignmentService {
                 .course(course)
                 .build();
 
-        return assignmentRepository.save(assignment);
+        Assignment saved = assignmentRepository.save(assignment);
+        courseStatsService.adjustAssignments(courseId, 1);
+        return saved;
     }
 
     public Assignment updateAssignment(UUID assignmentId, User currentUser, com.example.lms.controller.AssignmentController.UpdateAssignmentRequest request) {
@@ -99,6 +105,7 @@ public class AssignmentService {
         }
 
         assignmentRepository.delete(assignment);
+        courseStatsService.adjustAssignments(assignment.getCourse().getId(), -1);
     }
 
     public Assignment getAssignmentById(UUID assignmentId, User currentUser) {
@@ -107,8 +114,7 @@ public class AssignmentService {
         
         // Check if user has access (is teacher or enrolled student)
         Course course = assignment.getCourse();
-        boolean hasAccess = course.getTeacher().getId().equals(currentUser.getId()) ||
-                          course.getEnrolledStudents().contains(currentUser);
+        boolean hasAccess = courseAccessService.canAccess(course, currentUser);
         
         if (!hasAccess) {
             throw new RuntimeException("Bạn không có quyền truy cập bài tập này");
@@ -117,19 +123,19 @@ public class AssignmentService {
         return assignment;
     }
 
-    public List<Assignment> getAssignmentsByCourse(UUID courseId, User currentUser) {
+    @Transactional(readOnly = true)
+    public Page<AssignmentSummaryView> getAssignmentsByCourse(UUID courseId, User currentUser, Pageable pageable) {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy khóa học với ID: " + courseId));
         
         // Check if user has access (is teacher or enrolled student)
-        boolean hasAccess = course.getTeacher().getId().equals(currentUser.getId()) ||
-                          course.getEnrolledStudents().contains(currentUser);
+        boolean hasAccess = courseAccessService.canAccess(course, currentUser);
         
         if (!hasAccess) {
             throw new RuntimeException("Bạn không có quyền truy cập các bài tập của khóa học này");
         }
 
-        return assignmentRepository.findByCourseOrderByCreatedAtAsc(course);
+        return assignmentRepository.findSummariesByCourseId(courseId, pageable);
     }
 
     public AssignmentSubmission submitAssignment(UUID assignmentId, User currentUser, com.example.lms.controller.AssignmentController.CreateSubmissionRequest request) {
@@ -138,7 +144,7 @@ public class AssignmentService {
         
         // Check if user is enrolled in the course
         Course course = assignment.getCourse();
-        if (!course.getEnrolledStudents().contains(currentUser)) {
+        if (!courseAccessService.isEnrolled(course.getId(), currentUser.getId())) {
             throw new RuntimeException("Bạn chưa đăng ký khóa học này");
         }
 
@@ -161,10 +167,28 @@ public class AssignmentService {
                 .student(currentUser)
                 .build();
 
-        return submissionRepository.save(submission);
+        AssignmentSubmission saved = submissionRepository.save(submission);
+        courseStatsService.adjustSubmissions(assignmentId, 1);
+        return saved;
     }
 
     public Page<AssignmentSubmission> getSubmissions(UUID assignmentId, User currentUser, Pageable pageable) {
+        Assignment assignment = getAssignmentForSubmissionReview(assignmentId, currentUser);
+        return submissionRepository.findByAssignment(assignment, pageable);
+    }
+
+    /**
+     * Keyset-paginated submissions, newest first
+     */
+    public CursorPage<AssignmentSubmission> getSubmissions(UUID assignmentId, User currentUser,
+                                                           String cursor, int limit, boolean withTotal) {
+        Assignment assignment = getAssignmentForSubmissionReview(assignmentId, currentUser);
+        return submissionRepository.findKeysetPage(
+                (root, query, cb) -> cb.equal(root.get("assignment"), assignment),
+                cursor, limit, withTotal, "student");
+    }
+
+    private Assignment getAssignmentForSubmissionReview(UUID assignmentId, User currentUser) {
         Assignment assignment = assignmentRepository.findById(assignmentId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy bài tập với ID: " + assignmentId));
         
@@ -172,12 +196,11 @@ public class AssignmentService {
         if (!assignment.getCourse().getTeacher().getId().equals(currentUser.getId())) {
             throw new RuntimeException("Bạn không có quyền xem các bài nộp của bài tập này");
         }
-
-        return submissionRepository.findByAssignment(assignment, pageable);
+        return assignment;
     }
 
     public AssignmentSubmission gradeSubmission(UUID submissionId, User currentUser, com.example.lms.controller.AssignmentController.GradeSubmissionRequest request) {
-        AssignmentSubmission submission = submissionRepository.findById(submissionId)
+        AssignmentSubmission submission = submissionRepository.findWithStudentAndAssignmentById(submissionId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy bài nộp với ID: " + submissionId));
         
         // Only teacher can grade submissions
@@ -204,7 +227,7 @@ public class AssignmentService {
         
         // Check if user is enrolled in the course
         Course course = assignment.getCourse();
-        if (!course.getEnrolledStudents().contains(currentUser)) {
+        if (!courseAccessService.isEnrolled(course.getId(), currentUser.getId())) {
             throw new RuntimeException("Bạn chưa đăng ký khóa học này");
         }
 
@@ -14,6 +14,7 @@ public class AuthenticationService {
     private final UserService userService;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final TokenVersionService tokenVersionService;
 
     public AuthenticationResponse register(RegisterRequest request) {
         // Validate input
@@ -90,11 +91,19 @@ public class AuthenticationService {
 
     public AuthenticationResponse refreshToken(String refreshToken) {
         try {
-            String username = jwtService.extractUsername(refreshToken);
-            User user = userService.findByUsername(username)
+            JwtService.TokenClaims claims = jwtService.verify(refreshToken);
+            User user = userService.findByUsername(claims.subject())
                     .orElseThrow(() -> new RuntimeException("User không tồn tại"));
 
-            if (jwtService.isTokenValid(refreshToken, user)) {
+            // Refresh tokens issued before versions were added count as version 0
+            int tokenVersion = claims.tokenVersion() != null ? claims.tokenVersion() : 0;
+            int currentVersion = user.getTokenVersion() != null ? user.getTokenVersion() : 0;
+            if (!user.isEnabled() || tokenVersion < currentVersion
+                    || !tokenVersionService.isCurrent(user.getId(), tokenVersion)) {
+                throw new RuntimeException("Refresh token đã bị thu hồi");
+            }
+
+            if (!claims.isExpired()) {
                 String newAccessToken = jwtService.generateToken(user);
                 
                 return AuthenticationResponse.builder()
@@ -111,31 +120,35 @@ public class AuthenticationService {
     }
 
     public User updateProfile(User currentUser, com.example.lms.controller.AuthController.UpdateProfileRequest request) {
-        if (request.getEmail() != null && !request.getEmail().equals(currentUser.getEmail())) {
+        // The principal may be a cached snapshot: edit the stored row, not the snapshot
+        User user = userService.getUserById(currentUser.getId());
+
+        if (request.getEmail() != null && !request.getEmail().equals(user.getEmail())) {
             if (userService.existsByEmail(request.getEmail())) {
                 throw new RuntimeException("Email đã được sử dụng bởi tài khoản khác");
             }
-            currentUser.setEmail(request.getEmail());
+            user.setEmail(request.getEmail());
         }
         
         if (request.getFullName() != null) {
-            currentUser.setFullName(request.getFullName());
+            user.setFullName(request.getFullName());
         }
         
         // Note: These fields (phone, dateOfBirth, address) are not yet defined in UpdateProfileRequest
         // They would need to be added to the request class if needed
         
-        return userService.updateUser(currentUser);
+        return userService.updateUser(user);
     }
 
     public void changePassword(User currentUser, com.example.lms.controller.AuthController.ChangePasswordRequest request) {
-        // Verify current password
-        if (!userService.checkPassword(currentUser, request.getCurrentPassword())) {
+        // Verify against the stored hash, the cached principal carries none
+        User user = userService.getUserById(currentUser.getId());
+        if (!userService.checkPassword(user, request.getCurrentPassword())) {
             throw new RuntimeException("Mật khẩu hiện tại không đúng");
         }
         
         // Update password
-        userService.changePassword(currentUser, request.getNewPassword());
+        userService.changePassword(user, request.getNewPassword());
     }
 
     // DTOs
@@ -0,0 +1,145 @@
+package com.example.lms.service;
+
+import com.example.lms.repository.FileBlobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Content-addressed, reference-counted storage for uploaded bytes.
+ * Each distinct content is written once to the {@link StorageBackend} under
+ * {@code blobs/<2 hex>/<sha256>}; every logical upload pointing at it holds one reference.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class BlobStoreService {
+
+    private final FileBlobRepository fileBlobRepository;
+    private final StorageBackend storageBackend;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Hash the content while it is written to a temp file, then keep it only if this
+     * digest is not stored yet. Adds one reference either way.
+     * @return the SHA-256 (hex) of the content
+     */
+    public String store(InputStream content) throws IOException {
+        Path tempFile = Files.createTempFile("upload-", ".tmp");
+        try {
+            MessageDigest md = sha256();
+            try (InputStream in = new DigestInputStream(content, md);
+                 OutputStream out = Files.newOutputStream(tempFile)) {
+                in.transferTo(out);
+            }
+            String sha256 = HexFormat.of().formatHex(md.digest());
+
+            fileBlobRepository.lockBlob(sha256);
+            fileBlobRepository.addReference(sha256, Files.size(tempFile));
+            if (!storageBackend.exists(keyOf(sha256))) {
+                storageBackend.putFile(keyOf(sha256), tempFile, null);
+            }
+            return sha256;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Same as {@link #store} for an object a client already uploaded to the storage backend
+     * (presigned upload). The object is hashed by streaming it once, then moved under its
+     * digest on the storage side, or dropped if that content is already stored.
+     */
+    public String adopt(String key) throws IOException {
+        MessageDigest md = sha256();
+        long size;
+        try (InputStream in = new DigestInputStream(storageBackend.get(key), md)) {
+            size = in.transferTo(OutputStream.nullOutputStream());
+        }
+        String sha256 = HexFormat.of().formatHex(md.digest());
+
+        fileBlobRepository.lockBlob(sha256);
+        fileBlobRepository.addReference(sha256, size);
+        if (storageBackend.exists(keyOf(sha256))) {
+            storageBackend.delete(key);
+        } else {
+            storageBackend.move(key, keyOf(sha256));
+        }
+        return sha256;
+    }
+
+    /**
+     * Drop one reference. The last one removes the blob row, and the file
+     * once the transaction has committed.
+     */
+    public void release(String sha256) {
+        fileBlobRepository.lockBlob(sha256);
+        fileBlobRepository.removeReference(sha256);
+        if (fileBlobRepository.deleteIfUnreferenced(sha256) == 0) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteIfUnreferenced(sha256);
+                }
+            });
+        } else {
+            deleteIfUnreferenced(sha256);
+        }
+    }
+
+    /**
+     * Storage key of a blob: {@code blobs/<2 hex>/<sha256>}
+     */
+    public String keyOf(String sha256) {
+        return "blobs/" + sha256.substring(0, 2) + "/" + sha256;
+    }
+
+    /**
+     * Runs in its own transaction under the blob lock, so an upload of the same
+     * content that re-created the row in the meantime keeps its file.
+     */
+    private void deleteIfUnreferenced(String sha256) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        tx.executeWithoutResult(status -> {
+            fileBlobRepository.lockBlob(sha256);
+            if (fileBlobRepository.existsById(sha256)) {
+                return;
+            }
+            try {
+                storageBackend.delete(keyOf(sha256));
+            } catch (IOException e) {
+                log.warn("Could not delete blob {}", sha256, e);
+            }
+        });
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 không khả dụng", e);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.lms.service;
+
+import com.example.lms.dto.response.BulkEnrollmentResponse;
+import com.example.lms.entity.Course;
+import com.example.lms.entity.EnrollmentJob;
+import com.example.lms.entity.User;
+import com.example.lms.repository.EnrollmentJobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs Excel bulk enrollments in the background.
+ * The upload is copied next to the other uploads and a job row is created; a virtual thread
+ * then streams the roster and enrolls it chunk by chunk, one transaction per chunk.
+ * Progress is written back after every chunk, so a job interrupted by a restart resumes
+ * where it stopped instead of starting over.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkEnrollmentJobService {
+
+    private final EnrollmentJobRepository enrollmentJobRepository;
+    private final CourseService courseService;
+    private final ExcelProcessingService excelProcessingService;
+
+    @Value("${app.upload.dir:uploads}")
+    private String uploadDir;
+
+    @Value("${app.enrollment.jobs.max-concurrent:2}")
+    private int maxConcurrentJobs;
+
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("bulk-enroll-", 0).factory());
+
+    private Semaphore permits;
+    private volatile boolean shuttingDown;
+
+    @PostConstruct
+    void init() {
+        // Virtual threads are cheap, the database is not: cap how many jobs enroll at once
+        permits = new Semaphore(maxConcurrentJobs);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        shuttingDown = true;
+        executor.shutdownNow();
+    }
+
+    /**
+     * Pick up jobs that were queued or running when the application stopped
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        List<EnrollmentJob> jobs = enrollmentJobRepository.findByStatusInOrderByCreatedAtAsc(
+                EnumSet.of(EnrollmentJob.JobStatus.PENDING, EnrollmentJob.JobStatus.RUNNING));
+        for (EnrollmentJob job : jobs) {
+            log.info("Resuming bulk enrollment job {} at row {}", job.getId(), job.getTotalProcessed());
+            executor.execute(() -> run(job.getId()));
+        }
+    }
+
+    /**
+     * Validate the upload, store it and queue the job. Returns as soon as the job row exists.
+     */
+    public EnrollmentJob submit(UUID courseId, User requestedBy, MultipartFile file) throws IOException {
+        excelProcessingService.validateExcelFile(file);
+
+        Course course = courseService.getCourseById(courseId);
+        if (course.getStatus() != Course.CourseStatus.APPROVED) {
+            throw new RuntimeException("Chỉ có thể gán học viên cho khóa học đã được duyệt");
+        }
+
+        String fileName = file.getOriginalFilename();
+        Path jobDir = Paths.get(uploadDir, "enrollment-jobs");
+        Files.createDirectories(jobDir);
+        Path rosterPath = jobDir.resolve(UUID.randomUUID() + (fileName.endsWith(".xlsx") ? ".xlsx" : ".xls"));
+        file.transferTo(rosterPath.toAbsolutePath());
+
+        EnrollmentJob job;
+        try {
+            job = enrollmentJobRepository.save(EnrollmentJob.builder()
+                    .courseId(courseId)
+                    .requestedBy(requestedBy != null ? requestedBy.getId() : null)
+                    .fileName(fileName)
+                    .filePath(rosterPath.toString())
+                    .build());
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(rosterPath);
+            throw e;
+        }
+
+        UUID jobId = job.getId();
+        executor.execute(() -> run(jobId));
+        return job;
+    }
+
+    public EnrollmentJob getJob(UUID jobId) {
+        return enrollmentJobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy tác vụ gán học viên với ID: " + jobId));
+    }
+
+    private void run(UUID jobId) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            process(jobId);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void process(UUID jobId) {
+        EnrollmentJob job = enrollmentJobRepository.findById(jobId).orElse(null);
+        if (job == null || job.isFinished()) {
+            return;
+        }
+
+        BulkEnrollmentResponse response = job.getResult() != null
+                ? job.getResult()
+                : BulkEnrollmentResponse.builder().build();
+        // Emails come out of the reader de-duplicated and in file order, so the
+        // number already processed is a stable offset to resume from
+        int resumeFrom = response.getTotalProcessed();
+
+        job.setStatus(EnrollmentJob.JobStatus.RUNNING);
+        if (job.getStartedAt() == null) {
+            job.setStartedAt(Instant.now());
+        }
+        enrollmentJobRepository.save(job);
+
+        Path rosterPath = Paths.get(job.getFilePath());
+        try {
+            List<String> chunk = new ArrayList<>(CourseService.BULK_ENROLL_CHUNK_SIZE);
+            int[] position = {0};
+            excelProcessingService.streamEmailsFromExcel(rosterPath, email -> {
+                if (position[0]++ < resumeFrom) {
+                    return;
+                }
+                chunk.add(email);
+                if (chunk.size() >= CourseService.BULK_ENROLL_CHUNK_SIZE) {
+                    enrollChunk(job, chunk, response);
+                    chunk.clear();
+                }
+            });
+            if (!chunk.isEmpty()) {
+                enrollChunk(job, chunk, response);
+            }
+
+            if (response.getTotalProcessed() == 0) {
+                finish(job, EnrollmentJob.JobStatus.FAILED, "Không tìm thấy email nào trong file Excel");
+            } else {
+                finish(job, EnrollmentJob.JobStatus.COMPLETED, null);
+            }
+        } catch (Exception e) {
+            if (shuttingDown) {
+                // Leave it RUNNING, it is resumed on the next start
+                log.info("Bulk enrollment job {} interrupted by shutdown", jobId);
+                return;
+            }
+            log.error("Bulk enrollment job {} failed", jobId, e);
+            finish(job, EnrollmentJob.JobStatus.FAILED, "Lỗi xử lý file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Each call to the CourseService proxy runs in its own transaction,
+     * so a DB connection is only held for the duration of one chunk.
+     */
+    private void enrollChunk(EnrollmentJob job, List<String> chunk, BulkEnrollmentResponse response) {
+        try {
+            courseService.enrollChunk(job.getCourseId(), chunk, response);
+        } catch (Exception e) {
+            if (shuttingDown) {
+                throw e;
+            }
+            for (String email : chunk) {
+                response.addError(email, BulkEnrollmentResponse.ErrorType.SYSTEM_ERROR,
+                    "Lỗi khi gán học viên: " + e.getMessage());
+            }
+        }
+        saveProgress(job, response);
+    }
+
+    private void saveProgress(EnrollmentJob job, BulkEnrollmentResponse response) {
+        job.setTotalProcessed(response.getTotalProcessed());
+        job.setSuccessCount(response.getSuccessCount());
+        job.setErrorCount(response.getErrorCount());
+        job.setResult(response);
+        enrollmentJobRepository.save(job);
+    }
+
+    private void finish(EnrollmentJob job, EnrollmentJob.JobStatus status, String errorMessage) {
+        job.setStatus(status);
+        job.setErrorMessage(errorMessage);
+        job.setCompletedAt(Instant.now());
+        enrollmentJobRepository.save(job);
+
+        try {
+            Files.deleteIfExists(Paths.get(job.getFilePath()));
+        } catch (IOException e) {
+            log.warn("Could not delete roster file {} of job {}", job.getFilePath(), job.getId(), e);
+        }
+    }
+}
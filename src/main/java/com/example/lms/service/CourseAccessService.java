@@ -0,0 +1,104 @@
+package com.example.lms.service;
+
+import com.example.lms.entity.Course;
+import com.example.lms.entity.User;
+import com.example.lms.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers "is this user the teacher of, or enrolled in, this course" without loading
+ * {@code Course.enrolledStudents}. The course ids a user is enrolled in are read once
+ * from course_enrollments (student_id index) and kept per user; every enrollment write
+ * evicts the students it touched.
+ */
+@Service
+@RequiredArgsConstructor
+public class CourseAccessService {
+
+    private final UserRepository userRepository;
+
+    @Value("${app.enrollment.access-cache.max-size:10000}")
+    private int maxSize;
+
+    private final Map<UUID, Set<UUID>> enrolledCourses = new ConcurrentHashMap<>();
+
+    // Bumped on every eviction: a set read before it may be stale and is not cached
+    private final AtomicLong evictions = new AtomicLong();
+
+    public boolean canAccess(Course course, User user) {
+        return isTeacher(course, user) || isEnrolled(course.getId(), user.getId());
+    }
+
+    public boolean isTeacher(Course course, User user) {
+        return course.getTeacher().getId().equals(user.getId());
+    }
+
+    public boolean isEnrolled(UUID courseId, UUID userId) {
+        return enrolledCourseIds(userId).contains(courseId);
+    }
+
+    public Set<UUID> enrolledCourseIds(UUID userId) {
+        Set<UUID> cached = enrolledCourses.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long stamp = evictions.get();
+        Set<UUID> courseIds = Set.copyOf(userRepository.findEnrolledCourseIds(userId));
+        if (maxSize > 0) {
+            if (enrolledCourses.size() >= maxSize) {
+                trim();
+            }
+            if (evictions.get() == stamp) {
+                enrolledCourses.put(userId, courseIds);
+            }
+        }
+        return courseIds;
+    }
+
+    /**
+     * Forget the enrollments of these students, now and once the current transaction
+     * has committed (a concurrent read may have cached the old rows in between)
+     */
+    public void evict(Collection<UUID> userIds) {
+        evictNow(userIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictNow(userIds);
+                }
+            });
+        }
+    }
+
+    public void evict(UUID userId) {
+        evict(Set.of(userId));
+    }
+
+    private void evictNow(Collection<UUID> userIds) {
+        evictions.incrementAndGet();
+        userIds.forEach(enrolledCourses::remove);
+    }
+
+    private void trim() {
+        // Dropped users are simply read again on their next check
+        Iterator<UUID> it = enrolledCourses.keySet().iterator();
+        while (enrolledCourses.size() >= maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
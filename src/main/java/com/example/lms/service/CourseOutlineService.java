@@ -0,0 +1,138 @@
+package com.example.lms.service;
+
+import com.example.lms.dto.response.CourseOutline;
+import com.example.lms.dto.response.CourseOutline.LessonOutline;
+import com.example.lms.dto.response.CourseOutline.SectionOutline;
+import com.example.lms.repository.SectionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cached {@link CourseOutline} per course. The outline is read with a single ordered
+ * query and shared until a section or lesson of the course changes: every mutation bumps
+ * the course's version, and a snapshot built under an older version is never served.
+ */
+@Service
+@RequiredArgsConstructor
+public class CourseOutlineService {
+
+    private final SectionRepository sectionRepository;
+
+    @Value("${app.courses.outline-cache.max-size:1000}")
+    private int maxSize;
+
+    private final Map<UUID, CourseOutline> outlines = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> versions = new ConcurrentHashMap<>();
+
+    public CourseOutline getOutline(UUID courseId) {
+        long version = versions.getOrDefault(courseId, 0L);
+        CourseOutline cached = outlines.get(courseId);
+        if (cached != null && cached.version() == version) {
+            return cached;
+        }
+
+        CourseOutline outline = load(courseId, version);
+        if (maxSize > 0) {
+            if (outlines.size() >= maxSize) {
+                trim();
+            }
+            // A mutation during the load bumped the version: serve this one, but do not keep it
+            if (versions.getOrDefault(courseId, 0L) == version) {
+                outlines.put(courseId, outline);
+            }
+        }
+        return outline;
+    }
+
+    /**
+     * Sections or lessons of the course changed: bump its version now, and again once
+     * the current transaction has completed (a read in between may have seen the old rows)
+     */
+    public void invalidate(UUID courseId) {
+        bump(courseId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    bump(courseId);
+                }
+            });
+        }
+    }
+
+    /**
+     * The course was deleted: invalidate it, and once the deletion has committed drop its
+     * version too, so the map only keeps courses that still exist
+     */
+    public void forget(UUID courseId) {
+        invalidate(courseId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remove(courseId);
+            return;
+        }
+        // Registered after invalidate's: runs after its final bump
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    remove(courseId);
+                }
+            }
+        });
+    }
+
+    private void remove(UUID courseId) {
+        versions.remove(courseId);
+        outlines.remove(courseId);
+    }
+
+    private void bump(UUID courseId) {
+        versions.merge(courseId, 1L, Long::sum);
+        outlines.remove(courseId);
+    }
+
+    private CourseOutline load(UUID courseId, long version) {
+        List<SectionOutline> sections = new ArrayList<>();
+        Object[] section = null;
+        List<LessonOutline> lessons = new ArrayList<>();
+        for (Object[] row : sectionRepository.findOutlineRows(courseId)) {
+            if (section == null || !section[0].equals(row[0])) {
+                if (section != null) {
+                    sections.add(sectionOutline(section, lessons));
+                }
+                section = row;
+                lessons = new ArrayList<>();
+            }
+            if (row[4] != null) {
+                lessons.add(new LessonOutline((UUID) row[4], (String) row[5], (String) row[6], (Integer) row[7]));
+            }
+        }
+        if (section != null) {
+            sections.add(sectionOutline(section, lessons));
+        }
+        return new CourseOutline(courseId, version, sections);
+    }
+
+    private SectionOutline sectionOutline(Object[] row, List<LessonOutline> lessons) {
+        return new SectionOutline((UUID) row[0], (String) row[1], (String) row[2], (Integer) row[3], lessons);
+    }
+
+    private void trim() {
+        // Dropped outlines are simply read again on their next hit
+        Iterator<UUID> it = outlines.keySet().iterator();
+        while (outlines.size() >= maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package com.example.lms.service;
 
 import com.example.lms.entity.Course;
-import com.example.lms.entity.Section;
 import com.example.lms.entity.User;
 import com.example.lms.repository.CourseRepository;
 import com.example.lms.repository.UserRepository;
 import com.example.lms.dto.response.BulkEnrollmentResponse;
+import com.example.lms.dto.response.CourseOutline;
+import com.example.lms.dto.response.CourseSummaryView;
+import com.example.lms.dto.response.CursorPage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -20,15 +22,47 @@ import java.util.UUID;
 @Transactional
 public class CourseService {
 
+    // Keeps IN lists and the INSERT well below PostgreSQL's bind parameter limit
+    static final int BULK_ENROLL_CHUNK_SIZE = 1000;
+
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
+    private final CourseStatsService courseStatsService;
+    private final SearchService searchService;
+    private final CourseAccessService courseAccessService;
+    private final CourseOutlineService courseOutlineService;
 
-    public Page<Course> getApprovedCourses(Pageable pageable, String search, String teacher) {
+    public Page<CourseSummaryView> getApprovedCourses(Pageable pageable, String search, String teacher) {
         if (search != null && !search.trim().isEmpty()) {
-            return courseRepository.findByStatusAndTitleContainingIgnoreCase(
-                    Course.CourseStatus.APPROVED, search.trim(), pageable);
+            return searchService.searchCourses(Course.CourseStatus.APPROVED, search, pageable);
         }
-        return courseRepository.findByStatus(Course.CourseStatus.APPROVED, pageable);
+        return courseRepository.findSummariesByStatus(Course.CourseStatus.APPROVED, pageable);
+    }
+
+    /**
+     * Keyset-paginated catalog, newest first
+     */
+    public CursorPage<CourseSummaryView> getApprovedCourses(String cursor, int limit, boolean withTotal) {
+        CursorPage<Course> courses = courseRepository.findKeysetPage(
+                (root, query, cb) -> cb.equal(root.get("status"), Course.CourseStatus.APPROVED),
+                cursor, limit, withTotal);
+        
+        // Same projection as the numbered pages, loaded for this page's ids
+        java.util.Map<UUID, CourseSummaryView> summaries = new java.util.HashMap<>();
+        List<UUID> ids = courses.getItems().stream().map(Course::getId).toList();
+        if (!ids.isEmpty()) {
+            for (CourseSummaryView summary : courseRepository.findSummariesByIdIn(ids)) {
+                summaries.put(summary.getId(), summary);
+            }
+        }
+        return courses.map(course -> summaries.get(course.getId()));
+    }
+
+    public CursorPage<CourseSummaryView> searchApprovedCourses(String search, String cursor, int limit) {
+        if (search == null || search.trim().isEmpty()) {
+            throw new RuntimeException("Từ khóa tìm kiếm không được để trống");
+        }
+        return searchService.searchCourses(Course.CourseStatus.APPROVED, search, cursor, limit);
     }
 
     public Course createCourse(User teacher, com.example.lms.controller.CourseController.CreateCourseRequest request) {
@@ -48,16 +82,16 @@ public class CourseService {
         return courseRepository.save(course);
     }
 
-    public Page<Course> getCoursesByTeacher(User teacher, Pageable pageable) {
-        return courseRepository.findByTeacher(teacher, pageable);
+    public Page<CourseSummaryView> getCoursesByTeacher(User teacher, Pageable pageable) {
+        return courseRepository.findSummariesByTeacherId(teacher.getId(), pageable);
     }
 
-    public Page<Course> getEnrolledCourses(User student, Pageable pageable) {
-        return courseRepository.findByEnrolledStudentsContaining(student, pageable);
+    public Page<CourseSummaryView> getEnrolledCourses(User student, Pageable pageable) {
+        return courseRepository.findSummariesByStudentId(student.getId(), pageable);
     }
 
     public Course getCourseById(UUID courseId) {
-        return courseRepository.findById(courseId)
+        return courseRepository.findWithTeacherById(courseId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy khóa học với ID: " + courseId));
     }
 
@@ -112,6 +146,7 @@ public class CourseService {
 
         // Allow deleting courses regardless of status
         courseRepository.delete(course);
+        courseOutlineService.forget(courseId);
     }
 
     public void enrollStudent(UUID courseId, User student) {
@@ -121,15 +156,16 @@ public class CourseService {
             throw new RuntimeException("Chỉ có thể đăng ký vào khóa học đã được duyệt");
         }
 
-        // Persist on OWNING side of ManyToMany (User.enrolledCourses)
-        if (student.getEnrolledCourses().contains(course)) {
+        if (courseAccessService.isEnrolled(courseId, student.getId())) {
             throw new RuntimeException("Bạn đã đăng ký khóa học này rồi");
         }
 
-        student.getEnrolledCourses().add(course);
-        // keep both sides in sync in memory
-        course.getEnrolledStudents().add(student);
-        userRepository.save(student);
+        // Insert the join row directly: the principal is detached, its enrolled course set
+        // was never loaded and cannot be once the request has no open session
+        if (userRepository.insertEnrollments(courseId, List.of(student.getId())) > 0) {
+            courseStatsService.adjustEnrollments(courseId, 1);
+        }
+        courseAccessService.evict(student.getId());
     }
 
     public void enrollStudentByTeacher(UUID courseId, User currentUser, com.example.lms.controller.CourseController.EnrollStudentRequest req) {
@@ -157,94 +193,84 @@ public class CourseService {
             throw new RuntimeException("Học viên đã được gán vào khóa học này");
         }
 
-        java.util.Set<Course> enrolled = student.getEnrolledCourses();
-        if (enrolled == null) {
-            enrolled = new java.util.HashSet<>();
-            student.setEnrolledCourses(enrolled);
+        if (userRepository.insertEnrollments(courseId, List.of(student.getId())) > 0) {
+            courseStatsService.adjustEnrollments(courseId, 1);
         }
-        enrolled.add(course);
-        userRepository.save(student);
+        courseAccessService.evict(student.getId());
     }
 
-    public List<Section> getCourseContent(UUID courseId, User currentUser) {
+    public CourseOutline getCourseContent(UUID courseId, User currentUser) {
         Course course = getCourseById(courseId);
         
         // Check if user is enrolled or is the teacher
-        boolean hasAccess = course.getTeacher().getId().equals(currentUser.getId()) ||
-                          course.getEnrolledStudents().contains(currentUser);
+        boolean hasAccess = courseAccessService.canAccess(course, currentUser);
         
         if (!hasAccess) {
             throw new RuntimeException("Bạn không có quyền truy cập nội dung khóa học này");
         }
 
-        java.util.Set<Section> sectionSet = course.getSections();
-        java.util.List<Section> sections = sectionSet == null ? java.util.Collections.emptyList() : new java.util.ArrayList<>(sectionSet);
-        sections.sort((s1, s2) -> Integer.compare(
-                s1.getOrderIndex() != null ? s1.getOrderIndex() : 0,
-                s2.getOrderIndex() != null ? s2.getOrderIndex() : 0
-        ));
-        // Ensure lessons lists are initialized
-        for (Section s : sections) {
-            if (s.getLessons() == null) {
-                s.setLessons(new java.util.ArrayList<>());
-            }
-        }
-        return sections;
+        return courseOutlineService.getOutline(courseId);
     }
 
     /**
-     * Bulk enroll multiple students by email
+     * Enroll one chunk of a bulk-enrollment roster (see BulkEnrollmentJobService).
+     * Set-based: one IN lookup for the students, one for existing enrollments and one
+     * multi-row INSERT, instead of three queries per email.
      */
-    public BulkEnrollmentResponse bulkEnrollStudents(UUID courseId, List<String> emails) {
-        BulkEnrollmentResponse response = BulkEnrollmentResponse.builder().build();
+    public void enrollChunk(UUID courseId, List<String> emails, BulkEnrollmentResponse response) {
+        // Normalize once, keep input order for the per-email report
+        List<String> normalized = new java.util.ArrayList<>(emails.size());
+        for (String email : emails) {
+            normalized.add(email == null || email.trim().isEmpty() ? null : email.trim().toLowerCase());
+        }
         
-        Course course = getCourseById(courseId);
+        java.util.Set<String> lookup = new java.util.HashSet<>(normalized);
+        lookup.remove(null);
         
-        if (course.getStatus() != Course.CourseStatus.APPROVED) {
-            throw new RuntimeException("Chỉ có thể gán học viên cho khóa học đã được duyệt");
+        java.util.Map<String, UUID> studentIds = new java.util.HashMap<>();
+        if (!lookup.isEmpty()) {
+            for (Object[] row : userRepository.findIdsByEmailInAndRole(lookup, User.Role.STUDENT)) {
+                studentIds.put((String) row[1], (UUID) row[0]);
+            }
         }
         
-        for (String email : emails) {
-            try {
-                // Validate email format
-                if (email == null || email.trim().isEmpty()) {
-                    response.addError(email, BulkEnrollmentResponse.ErrorType.INVALID_EMAIL_FORMAT);
-                    continue;
-                }
-                
-                String trimmedEmail = email.trim().toLowerCase();
-                
-                // Find student by email
-                User student = userRepository.findByEmailAndRole(trimmedEmail, User.Role.STUDENT)
-                    .orElse(null);
-                if (student == null) {
-                    response.addError(trimmedEmail, BulkEnrollmentResponse.ErrorType.EMAIL_NOT_FOUND);
-                    continue;
-                }
-                
-                // Check if already enrolled
-                if (userRepository.existsByCourseEnrollment(courseId, student.getId())) {
-                    response.addError(trimmedEmail, BulkEnrollmentResponse.ErrorType.ALREADY_ENROLLED);
-                    continue;
-                }
-                
-                // Enroll student
-                java.util.Set<Course> enrolled = student.getEnrolledCourses();
-                if (enrolled == null) {
-                    enrolled = new java.util.HashSet<>();
-                    student.setEnrolledCourses(enrolled);
-                }
-                enrolled.add(course);
-                userRepository.save(student);
-                
-                response.addSuccess(trimmedEmail);
-                
-            } catch (Exception e) {
-                response.addError(email, BulkEnrollmentResponse.ErrorType.SYSTEM_ERROR, 
-                    "Lỗi khi gán học viên: " + e.getMessage());
+        java.util.Set<UUID> alreadyEnrolled = studentIds.isEmpty()
+                ? new java.util.HashSet<>()
+                : new java.util.HashSet<>(userRepository.findEnrolledStudentIds(courseId, studentIds.values()));
+        
+        // Classify first, report only once the INSERT went through
+        BulkEnrollmentResponse chunkResponse = BulkEnrollmentResponse.builder().build();
+        List<UUID> toInsert = new java.util.ArrayList<>();
+        for (int i = 0; i < emails.size(); i++) {
+            String trimmedEmail = normalized.get(i);
+            if (trimmedEmail == null) {
+                chunkResponse.addError(emails.get(i), BulkEnrollmentResponse.ErrorType.INVALID_EMAIL_FORMAT);
+                continue;
+            }
+            
+            UUID studentId = studentIds.get(trimmedEmail);
+            if (studentId == null) {
+                chunkResponse.addError(trimmedEmail, BulkEnrollmentResponse.ErrorType.EMAIL_NOT_FOUND);
+                continue;
             }
+            
+            // add() also catches the same email appearing twice in one file
+            if (!alreadyEnrolled.add(studentId)) {
+                chunkResponse.addError(trimmedEmail, BulkEnrollmentResponse.ErrorType.ALREADY_ENROLLED);
+                continue;
+            }
+            
+            toInsert.add(studentId);
+            chunkResponse.addSuccess(trimmedEmail);
+        }
+        
+        if (!toInsert.isEmpty()) {
+            courseStatsService.adjustEnrollments(courseId, userRepository.insertEnrollments(courseId, toInsert));
+            courseAccessService.evict(toInsert);
         }
         
-        return response;
+        chunkResponse.getSuccessfulEnrollments().forEach(response::addSuccess);
+        chunkResponse.getErrors().forEach(error ->
+            response.addError(error.getEmail(), error.getErrorType(), error.getErrorMessage()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,152 @@
+package com.example.lms.service;
+
+import com.example.lms.entity.AssignmentStats;
+import com.example.lms.entity.CourseStats;
+import com.example.lms.repository.AssignmentStatsRepository;
+import com.example.lms.repository.CourseStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Denormalized counters (course_stats, assignment_stats) so listings read counts in O(1)
+ * instead of counting or loading child collections.
+ * <p>
+ * Every write path adjusts the counter in its own transaction, so a rollback undoes both.
+ * Anything that bypasses those paths (cascading deletes, manual SQL) is corrected by
+ * {@link #reconcile()}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class CourseStatsService {
+
+    private static final UUID MIN_UUID = new UUID(0, 0);
+
+    private final CourseStatsRepository courseStatsRepository;
+    private final AssignmentStatsRepository assignmentStatsRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.stats.reconcile-batch-size:500}")
+    private int reconcileBatchSize;
+
+    public void adjustEnrollments(UUID courseId, int delta) {
+        if (delta != 0) {
+            courseStatsRepository.addEnrollments(courseId, delta);
+        }
+    }
+
+    public void adjustSections(UUID courseId, int delta) {
+        courseStatsRepository.addSections(courseId, delta);
+    }
+
+    public void adjustAssignments(UUID courseId, int delta) {
+        courseStatsRepository.addAssignments(courseId, delta);
+    }
+
+    public void adjustSubmissions(UUID assignmentId, int delta) {
+        assignmentStatsRepository.addSubmissions(assignmentId, delta);
+    }
+
+    /**
+     * Must run before the user row is deleted, while its enrollments and submissions still exist
+     */
+    public void removeStudent(UUID studentId) {
+        courseStatsRepository.removeStudent(studentId);
+        assignmentStatsRepository.removeStudent(studentId);
+    }
+
+    public CourseStats getCourseStats(UUID courseId) {
+        return courseStatsRepository.findById(courseId).orElseGet(() -> CourseStats.empty(courseId));
+    }
+
+    /**
+     * Counters for a page of courses in one query
+     */
+    public Map<UUID, CourseStats> getCourseStats(Collection<UUID> courseIds) {
+        Map<UUID, CourseStats> stats = new HashMap<>();
+        for (CourseStats row : courseStatsRepository.findAllById(courseIds)) {
+            stats.put(row.getCourseId(), row);
+        }
+        for (UUID courseId : courseIds) {
+            stats.computeIfAbsent(courseId, CourseStats::empty);
+        }
+        return stats;
+    }
+
+    public int getSubmissionsCount(UUID assignmentId) {
+        return assignmentStatsRepository.findById(assignmentId)
+                .map(AssignmentStats::getSubmissionsCount)
+                .orElse(0);
+    }
+
+    /**
+     * Submission counts for a page of assignments in one query; missing ids count 0
+     */
+    public Map<UUID, Integer> getSubmissionsCounts(Collection<UUID> assignmentIds) {
+        Map<UUID, Integer> counts = new HashMap<>();
+        for (AssignmentStats row : assignmentStatsRepository.findAllById(assignmentIds)) {
+            counts.put(row.getAssignmentId(), row.getSubmissionsCount());
+        }
+        return counts;
+    }
+
+    /**
+     * Recompute every counter from the source tables. Rows are locked batch by batch before
+     * counting, so an enrollment or submission committing concurrently is either already
+     * visible to the count or waits and applies its increment on top of the corrected value.
+     */
+    @Scheduled(cron = "${app.stats.reconcile-cron:0 30 3 * * *}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void reconcile() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        tx.executeWithoutResult(status -> {
+            courseStatsRepository.insertMissing();
+            assignmentStatsRepository.insertMissing();
+        });
+        int courses = reconcileInBatches(tx, courseStatsRepository::lockBatch, courseStatsRepository::reconcile);
+        int assignments = reconcileInBatches(tx, assignmentStatsRepository::lockBatch, assignmentStatsRepository::reconcile);
+
+        if (courses > 0 || assignments > 0) {
+            log.warn("Stats reconciliation corrected {} course and {} assignment counters", courses, assignments);
+        }
+    }
+
+    private int reconcileInBatches(TransactionTemplate tx,
+                                   BiFunction<UUID, Integer, List<UUID>> lockBatch,
+                                   Function<Collection<UUID>, Integer> reconcile) {
+        int corrected = 0;
+        UUID after = MIN_UUID;
+        while (after != null) {
+            UUID from = after;
+            // One short transaction per batch: lock, recount, release
+            int[] changed = new int[1];
+            after = tx.execute(status -> {
+                List<UUID> ids = lockBatch.apply(from, reconcileBatchSize);
+                if (ids.isEmpty()) {
+                    return null;
+                }
+                changed[0] = reconcile.apply(ids);
+                return ids.get(ids.size() - 1);
+            });
+            corrected += changed[0];
+        }
+        return corrected;
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.lms.service;
+
+import com.example.lms.entity.DocumentExtractionJob;
+import com.example.lms.entity.User;
+import com.example.lms.repository.DocumentExtractionJobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Extracts the text of uploaded Word documents in the background.
+ * The upload is copied next to the other uploads and a job row is created; a virtual thread
+ * then parses it and stores the text on the job, which the client polls.
+ * Every parse (background or the synchronous upload endpoint) takes one of {@code max-concurrent}
+ * permits, runs under a timeout and is refused when the package inflates past
+ * {@code max-unpacked-size} or the text passes {@code max-text-length}.
+ * A document whose bytes were extracted before is answered from {@link DocumentTextCache}
+ * without taking a permit.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DocumentExtractionJobService {
+
+    private final DocumentExtractionJobRepository jobRepository;
+    private final DocumentParserService documentParserService;
+    private final DocumentTextCache documentTextCache;
+
+    @Value("${app.upload.dir:uploads}")
+    private String uploadDir;
+
+    @Value("${app.documents.extraction.max-concurrent:2}")
+    private int maxConcurrentParses;
+
+    @Value("${app.documents.extraction.timeout:60s}")
+    private Duration timeout;
+
+    @Value("${app.documents.extraction.max-unpacked-size:52428800}")
+    private long maxUnpackedSize;
+
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("document-extract-", 0).factory());
+
+    private Semaphore permits;
+    private volatile boolean shuttingDown;
+
+    @PostConstruct
+    void init() {
+        permits = new Semaphore(maxConcurrentParses);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        shuttingDown = true;
+        executor.shutdownNow();
+    }
+
+    /**
+     * Pick up jobs that were queued or running when the application stopped
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        List<DocumentExtractionJob> jobs = jobRepository.findByStatusInOrderByCreatedAtAsc(
+                EnumSet.of(DocumentExtractionJob.JobStatus.PENDING, DocumentExtractionJob.JobStatus.RUNNING));
+        for (DocumentExtractionJob job : jobs) {
+            log.info("Resuming document extraction job {}", job.getId());
+            executor.execute(() -> run(job.getId()));
+        }
+    }
+
+    /**
+     * Validate the upload, store it and queue the job. Returns as soon as the job row exists.
+     */
+    public DocumentExtractionJob submit(User requestedBy, MultipartFile file) throws IOException {
+        documentParserService.validateFile(file);
+
+        String fileName = file.getOriginalFilename();
+        Path jobDir = Paths.get(uploadDir, "document-jobs");
+        Files.createDirectories(jobDir);
+        Path documentPath = jobDir.resolve(UUID.randomUUID() + (fileName.toLowerCase().endsWith(".docx") ? ".docx" : ".doc"));
+        file.transferTo(documentPath.toAbsolutePath());
+
+        DocumentExtractionJob job;
+        try {
+            job = jobRepository.save(DocumentExtractionJob.builder()
+                    .requestedBy(requestedBy != null ? requestedBy.getId() : null)
+                    .fileName(fileName)
+                    .filePath(documentPath.toString())
+                    .build());
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(documentPath);
+            throw e;
+        }
+
+        UUID jobId = job.getId();
+        executor.execute(() -> run(jobId));
+        return job;
+    }
+
+    public DocumentExtractionJob getJob(UUID jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy tác vụ trích xuất tài liệu với ID: " + jobId));
+    }
+
+    /**
+     * Parse an upload on the caller's request, under the same concurrency cap and limits as the
+     * background jobs; waits at most {@code timeout} for a free permit
+     */
+    public String extractNow(MultipartFile file) throws IOException, TimeoutException, InterruptedException {
+        documentParserService.validateFile(file);
+        String cacheKey = documentTextCache.key(file, file.getOriginalFilename());
+        String cached = documentTextCache.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        if (!permits.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new TimeoutException("Server is busy processing other documents, please try again later");
+        }
+        String text = parse(file, file.getOriginalFilename());
+        documentTextCache.put(cacheKey, text);
+        return text;
+    }
+
+    /**
+     * Read the heading outline of an upload for a course import, under the same concurrency cap
+     * and limits as text extraction
+     */
+    public List<DocumentParserService.OutlineSection> extractOutlineNow(MultipartFile file)
+            throws IOException, TimeoutException, InterruptedException {
+        documentParserService.validateFile(file);
+        if (!permits.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new TimeoutException("Server is busy processing other documents, please try again later");
+        }
+        return parse(() -> documentParserService.extractOutline(file, file.getOriginalFilename(), maxUnpackedSize));
+    }
+
+    private void run(UUID jobId) {
+        DocumentExtractionJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || job.isFinished()) {
+            return;
+        }
+
+        FileSystemResource document = new FileSystemResource(job.getFilePath());
+        String cacheKey;
+        try {
+            cacheKey = documentTextCache.key(document, job.getFileName());
+        } catch (IOException e) {
+            log.error("Document extraction job {} failed", jobId, e);
+            finish(job, DocumentExtractionJob.JobStatus.FAILED, "Lỗi xử lý tài liệu: " + e.getMessage());
+            return;
+        }
+        String cached = documentTextCache.get(cacheKey);
+        if (cached != null) {
+            job.setContent(cached);
+            if (job.getStartedAt() == null) {
+                job.setStartedAt(Instant.now());
+            }
+            finish(job, DocumentExtractionJob.JobStatus.COMPLETED, null);
+            return;
+        }
+
+        try {
+            // Queued jobs wait here, on a virtual thread, until a parse slot frees up
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        job.setStatus(DocumentExtractionJob.JobStatus.RUNNING);
+        if (job.getStartedAt() == null) {
+            job.setStartedAt(Instant.now());
+        }
+        try {
+            jobRepository.save(job);
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+
+        try {
+            job.setContent(parse(document, job.getFileName()));
+            documentTextCache.put(cacheKey, job.getContent());
+            finish(job, DocumentExtractionJob.JobStatus.COMPLETED, null);
+        } catch (TimeoutException e) {
+            log.warn("Document extraction job {} timed out after {}", jobId, timeout);
+            finish(job, DocumentExtractionJob.JobStatus.FAILED, "Quá thời gian xử lý tài liệu");
+        } catch (IllegalArgumentException e) {
+            finish(job, DocumentExtractionJob.JobStatus.FAILED, e.getMessage());
+        } catch (Exception e) {
+            if (shuttingDown) {
+                // Leave it RUNNING, it is parsed again on the next start
+                log.info("Document extraction job {} interrupted by shutdown", jobId);
+                return;
+            }
+            log.error("Document extraction job {} failed", jobId, e);
+            finish(job, DocumentExtractionJob.JobStatus.FAILED, "Lỗi xử lý tài liệu: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs one parse holding an already acquired permit. The permit is released when the parse
+     * itself ends, not when the caller stops waiting: POI does not react to interrupts, and a
+     * timed-out parse still holds its memory until it returns.
+     */
+    private String parse(InputStreamSource source, String fileName)
+            throws IOException, TimeoutException, InterruptedException {
+        return parse(() -> documentParserService.extractText(source, fileName, maxUnpackedSize));
+    }
+
+    private <T> T parse(Callable<T> parser) throws IOException, TimeoutException, InterruptedException {
+        Future<T> parse;
+        try {
+            parse = executor.submit(() -> {
+                try {
+                    return parser.call();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+
+        try {
+            return parse.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            parse.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private void finish(DocumentExtractionJob job, DocumentExtractionJob.JobStatus status, String errorMessage) {
+        job.setStatus(status);
+        job.setErrorMessage(errorMessage);
+        job.setCompletedAt(Instant.now());
+        jobRepository.save(job);
+
+        try {
+            Files.deleteIfExists(Paths.get(job.getFilePath()));
+        } catch (IOException e) {
+            log.warn("Could not delete document file {} of job {}", job.getFilePath(), job.getId(), e);
+        }
+    }
+}
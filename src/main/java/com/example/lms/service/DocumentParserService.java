@@ -1,20 +1,46 @@
 package com.example.lms.service;
 
+import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.hwpf.HWPFDocument;
 import org.apache.poi.hwpf.extractor.WordExtractor;
 import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
 import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
 
 /**
  * Service for parsing document files (.doc/.docx) and extracting text content
  */
+@Slf4j
 @Service
 public class DocumentParserService {
 
+    private static final String DOCX_MAIN_PART = "word/document.xml";
+    private static final String W_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    private static final String MC_NS = "http://schemas.openxmlformats.org/markup-compatibility/2006";
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    @Value("${app.documents.extraction.max-text-length:5000000}")
+    private int maxTextLength;
+
     /**
      * Extract text content from uploaded .doc or .docx file
      * @param file MultipartFile containing the document
@@ -26,8 +52,19 @@ public class DocumentParserService {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("File is empty");
         }
+        return extractText(file, file.getOriginalFilename(), Long.MAX_VALUE);
+    }
 
-        String filename = file.getOriginalFilename();
+    /**
+     * Extract text content from a .doc or .docx document
+     * @param source the document bytes (an upload, or a stored copy of one); may be opened more than once
+     * @param filename original file name, decides the format
+     * @param maxUnpackedSize .docx only: limit on the bytes inflated from the package while reading it
+     * @return Extracted plain text content
+     * @throws IOException if file cannot be read or parsed
+     * @throws IllegalArgumentException if file format is not supported or the document is too large
+     */
+    public String extractText(InputStreamSource source, String filename, long maxUnpackedSize) throws IOException {
         if (filename == null) {
             throw new IllegalArgumentException("Filename is null");
         }
@@ -36,25 +73,81 @@ public class DocumentParserService {
         
         try {
             if (lowercaseFilename.endsWith(".docx")) {
-                return extractFromDocx(file);
+                return extractFromDocx(source, maxUnpackedSize);
             } else if (lowercaseFilename.endsWith(".doc")) {
-                return extractFromDoc(file);
+                return extractFromDoc(source);
             } else {
                 throw new IllegalArgumentException("Unsupported file format. Only .doc and .docx files are supported.");
             }
         } catch (Exception e) {
-            if (e instanceof IllegalArgumentException) {
-                throw e;
+            if (e instanceof IllegalArgumentException illegalArgument) {
+                throw illegalArgument;
+            }
+            throw new IOException("Error parsing document: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Read the heading structure of a .docx document as a course outline: every Heading 1 starts
+     * a section, every Heading 2 a lesson, and the paragraphs that follow become the lesson content.
+     * Text with no lesson heading above it becomes a lesson named after its section; text before
+     * the first Heading 1 goes to a section named after the file.
+     * @param source the document bytes
+     * @param filename original file name, must be a .docx
+     * @param maxUnpackedSize limit on the bytes inflated from the package while reading it
+     * @return the sections in document order, each with its lessons in document order
+     * @throws IOException if file cannot be read or parsed
+     * @throws IllegalArgumentException if the file is not a .docx or the document is too large
+     */
+    public List<OutlineSection> extractOutline(InputStreamSource source, String filename, long maxUnpackedSize) throws IOException {
+        if (filename == null || !filename.toLowerCase().endsWith(".docx")) {
+            throw new IllegalArgumentException("Only .docx files can be imported as a course outline");
+        }
+
+        String baseName = filename.substring(0, filename.length() - ".docx".length());
+        OutlineBuilder outline = new OutlineBuilder(baseName, maxTextLength);
+        try {
+            if (!streamMainPart(source, maxUnpackedSize, outline)) {
+                throw new IOException("Error parsing document: no " + DOCX_MAIN_PART + " part");
             }
+        } catch (XMLStreamException e) {
             throw new IOException("Error parsing document: " + e.getMessage(), e);
         }
+        return outline.build();
     }
 
     /**
-     * Extract text from .docx file (Office 2007+)
+     * Only the .docx fallback builds a DOM: XWPFDocument keeps every part in memory, so the
+     * inflated size of the package bounds the heap it takes. Counted while inflating (the sizes
+     * in the zip directory can be forged), with a fixed buffer, stopping as soon as the limit is passed.
      */
-    private String extractFromDocx(MultipartFile file) throws IOException {
-        try (XWPFDocument document = new XWPFDocument(file.getInputStream());
+    private void checkUnpackedSize(InputStreamSource source, long maxUnpackedSize) throws IOException {
+        if (maxUnpackedSize == Long.MAX_VALUE) {
+            return;
+        }
+        try (ZipInputStream zip = new ZipInputStream(source.getInputStream())) {
+            InputStream counted = new BudgetedInputStream(zip, maxUnpackedSize);
+            while (zip.getNextEntry() != null) {
+                counted.transferTo(OutputStream.nullOutputStream());
+            }
+        }
+    }
+
+    /**
+     * Extract text from .docx file (Office 2007+).
+     * Streams the main part ({@code word/document.xml}) through StAX straight into the normalized
+     * output, so apart from the text itself a parse holds one inflater and one XML buffer whatever
+     * the file size. Headers, footers and notes are not read. Packages the stream cannot walk
+     * (no {@code word/document.xml}, or stored entries with data descriptors) go through XWPFDocument.
+     */
+    private String extractFromDocx(InputStreamSource source, long maxUnpackedSize) throws IOException, XMLStreamException {
+        NormalizedTextBuilder streamed = new NormalizedTextBuilder(maxTextLength);
+        if (streamMainPart(source, maxUnpackedSize, streamed)) {
+            return streamed.toString();
+        }
+
+        checkUnpackedSize(source, maxUnpackedSize);
+        try (XWPFDocument document = new XWPFDocument(source.getInputStream());
              XWPFWordExtractor extractor = new XWPFWordExtractor(document)) {
             
             String text = extractor.getText();
@@ -62,11 +155,164 @@ public class DocumentParserService {
         }
     }
 
+    /**
+     * Feed {@code word/document.xml} of a .docx package to the handler
+     * @return false when the package has no such part or cannot be read as a stream
+     */
+    private boolean streamMainPart(InputStreamSource source, long maxUnpackedSize, DocxBodyHandler handler)
+            throws IOException, XMLStreamException {
+        try (ZipInputStream zip = new ZipInputStream(source.getInputStream())) {
+            // Entries before the main part are inflated to skip them, so they count against the budget too
+            InputStream counted = new BudgetedInputStream(zip, maxUnpackedSize);
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (DOCX_MAIN_PART.equals(entry.getName())) {
+                    streamDocumentXml(counted, handler);
+                    return true;
+                }
+                counted.transferTo(OutputStream.nullOutputStream());
+            }
+        } catch (ZipException e) {
+            log.debug("Cannot stream the package: {}", e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Writes the text of a WordprocessingML body the way XWPFWordExtractor lays it out:
+     * a line per paragraph, {@code w:tab} as a tab, {@code w:br}/{@code w:cr} as a line break,
+     * table cells (and paragraphs within a cell) separated by tabs, a line per table row and a
+     * blank line after the table. A table nested in a cell is run together the same way:
+     * its cells and rows without separators, a line break after it. Deleted text ({@code w:delText}),
+     * field codes ({@code w:instrText}) and the {@code mc:Fallback} copy of drawings are skipped.
+     * Paragraphs outside tables with a heading style ({@code HeadingN}) or an outline level are
+     * reported to the handler before their text.
+     */
+    private void streamDocumentXml(InputStream xml, DocxBodyHandler out) throws XMLStreamException {
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(xml);
+        try {
+            boolean inRun = false;
+            boolean inText = false;
+            int propertiesDepth = 0;
+            int skipDepth = 0;
+            int cellDepth = 0;
+            // Separator owed to the next top-level cell, and to the next paragraph or table of the same cell (0: none)
+            boolean cellSeparator = false;
+            char cellBlockSeparator = 0;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (skipDepth > 0) {
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        skipDepth++;
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        skipDepth--;
+                    }
+                    continue;
+                }
+
+                switch (event) {
+                    case XMLStreamConstants.START_ELEMENT -> {
+                        if (MC_NS.equals(reader.getNamespaceURI()) && "Fallback".equals(reader.getLocalName())) {
+                            skipDepth = 1;
+                            continue;
+                        }
+                        if (!W_NS.equals(reader.getNamespaceURI())) {
+                            continue;
+                        }
+                        switch (reader.getLocalName()) {
+                            case "r" -> inRun = true;
+                            case "t" -> inText = inRun;
+                            case "pPr" -> propertiesDepth++;
+                            case "pStyle" -> {
+                                // Only the paragraph's own properties, not the previous ones kept in w:pPrChange
+                                if (propertiesDepth == 1 && cellDepth == 0) {
+                                    out.heading(headingLevel(reader.getAttributeValue(W_NS, "val")));
+                                }
+                            }
+                            case "outlineLvl" -> {
+                                if (propertiesDepth == 1 && cellDepth == 0) {
+                                    out.heading(outlineLevel(reader.getAttributeValue(W_NS, "val")));
+                                }
+                            }
+                            case "tab", "ptab" -> {
+                                if (inRun) out.text('\t');
+                            }
+                            case "br", "cr" -> {
+                                if (inRun) out.text('\n');
+                            }
+                            case "noBreakHyphen" -> {
+                                if (inRun) out.text('-');
+                            }
+                            case "tc" -> {
+                                if (cellSeparator && cellDepth == 0) out.text('\t');
+                                cellSeparator = false;
+                                cellBlockSeparator = 0;
+                                cellDepth++;
+                            }
+                            case "p", "tbl" -> {
+                                if (cellBlockSeparator != 0) out.text(cellBlockSeparator);
+                                cellBlockSeparator = 0;
+                            }
+                            default -> { }
+                        }
+                    }
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> {
+                        if (inText) {
+                            out.text(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        }
+                    }
+                    case XMLStreamConstants.END_ELEMENT -> {
+                        if (!W_NS.equals(reader.getNamespaceURI())) {
+                            continue;
+                        }
+                        switch (reader.getLocalName()) {
+                            case "r" -> inRun = false;
+                            case "t" -> inText = false;
+                            case "pPr" -> propertiesDepth--;
+                            case "p" -> {
+                                // Inside a cell the paragraphs are joined by tabs, the row ends the last one
+                                if (cellDepth > 0) {
+                                    cellBlockSeparator = '\t';
+                                } else {
+                                    out.text('\n');
+                                    out.endParagraph();
+                                }
+                            }
+                            case "tc" -> {
+                                cellDepth--;
+                                cellSeparator = true;
+                                cellBlockSeparator = 0;
+                            }
+                            case "tr" -> {
+                                if (cellDepth == 0) {
+                                    cellSeparator = false;
+                                    out.text('\n');
+                                }
+                            }
+                            case "tbl" -> {
+                                if (cellDepth > 0) {
+                                    cellBlockSeparator = '\n';
+                                } else {
+                                    out.text('\n');
+                                }
+                            }
+                            default -> { }
+                        }
+                    }
+                    default -> { }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
     /**
      * Extract text from .doc file (Office 97-2003)
      */
-    private String extractFromDoc(MultipartFile file) throws IOException {
-        try (HWPFDocument document = new HWPFDocument(file.getInputStream());
+    private String extractFromDoc(InputStreamSource source) throws IOException {
+        try (HWPFDocument document = new HWPFDocument(source.getInputStream());
              WordExtractor extractor = new WordExtractor(document)) {
             
             String text = extractor.getText();
@@ -82,11 +328,7 @@ public class DocumentParserService {
             return "";
         }
         
-        // Clean up extra whitespace and normalize line breaks
-        return text.trim()
-                  .replaceAll("\\r\\n", "\n")  // Windows line endings
-                  .replaceAll("\\r", "\n")     // Mac line endings
-                  .replaceAll("\\n{3,}", "\n\n"); // Multiple line breaks to double
+        return new NormalizedTextBuilder(maxTextLength).append(text).toString();
     }
 
     /**
@@ -110,4 +352,321 @@ public class DocumentParserService {
             throw new IllegalArgumentException("Invalid file format. Only .doc and .docx files are allowed");
         }
     }
+
+    /**
+     * Level of a built-in heading style id ({@code Heading1}, {@code heading 2}...), 0 for other styles
+     */
+    private static int headingLevel(String styleId) {
+        if (styleId == null) {
+            return 0;
+        }
+        String id = styleId.replace(" ", "").toLowerCase(Locale.ROOT);
+        if (id.length() == "heading".length() + 1 && id.startsWith("heading") && Character.isDigit(id.charAt(id.length() - 1))) {
+            return id.charAt(id.length() - 1) - '0';
+        }
+        return 0;
+    }
+
+    /**
+     * Heading level of a direct {@code w:outlineLvl} (0-based, 9 = body text), 0 for body text
+     */
+    private static int outlineLevel(String value) {
+        try {
+            int level = Integer.parseInt(value);
+            return level >= 0 && level < 9 ? level + 1 : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // Uploaded XML: no DTDs, no external entities
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * Receives the body of a .docx as it is streamed
+     */
+    private interface DocxBodyHandler {
+
+        void text(char c);
+
+        void text(char[] chars, int start, int length);
+
+        /**
+         * Heading level of the current paragraph (1 = Heading 1, 0 = not a heading), before its text
+         */
+        default void heading(int level) {
+        }
+
+        /**
+         * End of a paragraph outside tables, after its closing line break
+         */
+        default void endParagraph() {
+        }
+    }
+
+    /**
+     * Counts the bytes read through it and fails once more than {@code budget} were read.
+     * Does not close the wrapped stream, which stays positioned on the current zip entry.
+     */
+    private static final class BudgetedInputStream extends FilterInputStream {
+
+        private final long budget;
+        private long read;
+
+        BudgetedInputStream(InputStream in, long budget) {
+            super(in);
+            this.budget = budget;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private void count(int n) {
+            read += n;
+            if (read > budget) {
+                throw new IllegalArgumentException("Document is too large to process (over "
+                        + budget / (1024 * 1024) + "MB uncompressed)");
+            }
+        }
+    }
+
+    /**
+     * Appendable that normalizes as it goes, in one pass and without regex copies:
+     * CRLF and CR become LF, runs of three or more line breaks become two, and leading and
+     * trailing whitespace is dropped (same result as trim + the former replaceAll chain).
+     * Whitespace is held back until the next visible character so the tail can be dropped.
+     * Fails once the text would pass {@code maxLength} characters.
+     */
+    static final class NormalizedTextBuilder implements Appendable, DocxBodyHandler {
+
+        private final int maxLength;
+        private final StringBuilder text = new StringBuilder();
+        private final StringBuilder pendingWhitespace = new StringBuilder();
+        private int newlineRun;
+        private boolean lastWasCr;
+
+        NormalizedTextBuilder(int maxLength) {
+            this.maxLength = maxLength;
+        }
+
+        @Override
+        public NormalizedTextBuilder append(CharSequence csq) {
+            return append(csq, 0, csq.length());
+        }
+
+        @Override
+        public NormalizedTextBuilder append(CharSequence csq, int start, int end) {
+            for (int i = start; i < end; i++) {
+                append(csq.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public void text(char c) {
+            append(c);
+        }
+
+        @Override
+        public void text(char[] chars, int start, int length) {
+            for (int i = start; i < start + length; i++) {
+                append(chars[i]);
+            }
+        }
+
+        int length() {
+            return text.length();
+        }
+
+        @Override
+        public NormalizedTextBuilder append(char c) {
+            if (c == '\n' && lastWasCr) {
+                // Second half of a CRLF, already written as LF
+                lastWasCr = false;
+                return this;
+            }
+            lastWasCr = c == '\r';
+            if (lastWasCr) {
+                c = '\n';
+            }
+
+            if (c > ' ') {
+                if (!text.isEmpty()) {
+                    text.append(pendingWhitespace);
+                }
+                pendingWhitespace.setLength(0);
+                newlineRun = 0;
+                text.append(c);
+            } else if (c == '\n') {
+                if (++newlineRun <= 2) {
+                    pendingWhitespace.append(c);
+                }
+            } else {
+                newlineRun = 0;
+                pendingWhitespace.append(c);
+            }
+
+            if (text.length() + pendingWhitespace.length() > maxLength) {
+                throw new IllegalArgumentException("Document text is too long to process (over "
+                        + maxLength + " characters)");
+            }
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+
+    /**
+     * Builds the outline from the streamed body: heading paragraphs are collected as titles,
+     * other text goes to the current lesson through a {@link NormalizedTextBuilder}.
+     * The text of all lessons together is bounded by {@code maxTextLength}.
+     */
+    private static final class OutlineBuilder implements DocxBodyHandler {
+
+        private static final int MAX_TITLE_LENGTH = 255;
+
+        private final String defaultSectionTitle;
+        private final int maxTextLength;
+        private final List<OutlineSection> sections = new ArrayList<>();
+
+        private String sectionTitle;
+        private List<OutlineLesson> lessons;
+        private String lessonTitle;
+        private NormalizedTextBuilder lessonContent;
+        private int textLength;
+
+        private int paragraphLevel;
+        private final StringBuilder heading = new StringBuilder();
+
+        OutlineBuilder(String defaultSectionTitle, int maxTextLength) {
+            this.defaultSectionTitle = title(defaultSectionTitle);
+            this.maxTextLength = maxTextLength;
+        }
+
+        @Override
+        public void heading(int level) {
+            // Deeper headings stay in the lesson text
+            paragraphLevel = level <= 2 ? level : 0;
+        }
+
+        @Override
+        public void text(char c) {
+            if (paragraphLevel > 0) {
+                if (heading.length() <= MAX_TITLE_LENGTH) {
+                    heading.append(c);
+                }
+                return;
+            }
+            if (lessonContent == null) {
+                if (c <= ' ') {
+                    return;
+                }
+                startLesson(sectionTitle != null ? sectionTitle : defaultSectionTitle);
+            }
+            lessonContent.text(c);
+        }
+
+        @Override
+        public void text(char[] chars, int start, int length) {
+            for (int i = start; i < start + length; i++) {
+                text(chars[i]);
+            }
+        }
+
+        @Override
+        public void endParagraph() {
+            int level = paragraphLevel;
+            String title = title(heading.toString());
+            paragraphLevel = 0;
+            heading.setLength(0);
+            if (level == 0 || title.isEmpty()) {
+                return;
+            }
+
+            if (level == 1) {
+                endSection();
+                sectionTitle = title;
+                lessons = new ArrayList<>();
+            } else {
+                startLesson(title);
+            }
+        }
+
+        List<OutlineSection> build() {
+            endSection();
+            return sections;
+        }
+
+        private void startLesson(String title) {
+            endLesson();
+            if (lessons == null) {
+                sectionTitle = defaultSectionTitle;
+                lessons = new ArrayList<>();
+            }
+            lessonTitle = title;
+            lessonContent = new NormalizedTextBuilder(maxTextLength - textLength);
+        }
+
+        private void endLesson() {
+            if (lessonContent != null) {
+                textLength += lessonContent.length();
+                String content = lessonContent.toString();
+                lessons.add(new OutlineLesson(lessonTitle, content.isEmpty() ? null : content));
+                lessonContent = null;
+            }
+        }
+
+        private void endSection() {
+            endLesson();
+            if (lessons != null) {
+                sections.add(new OutlineSection(sectionTitle, List.copyOf(lessons)));
+                lessons = null;
+            }
+        }
+
+        /**
+         * Heading text as a single line, cut to the title column length
+         */
+        private static String title(String text) {
+            String title = text.strip().replaceAll("\\s+", " ");
+            return title.length() > MAX_TITLE_LENGTH ? title.substring(0, MAX_TITLE_LENGTH).strip() : title;
+        }
+    }
+
+    /**
+     * A Heading 1 of an imported document and the lessons under it
+     */
+    public record OutlineSection(String title, List<OutlineLesson> lessons) {}
+
+    /**
+     * A Heading 2 of an imported document; content is null when no text follows the heading
+     */
+    public record OutlineLesson(String title, String content) {}
 }
\ No newline at end of file
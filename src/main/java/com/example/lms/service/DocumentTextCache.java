@@ -0,0 +1,258 @@
+package com.example.lms.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Text extracted from Word documents, keyed by the SHA-256 of the uploaded bytes, so that a
+ * document uploaded again is not parsed again.
+ * A memory tier bounded by {@code max-memory-size} characters sits in front of a disk tier
+ * under the upload dir; disk entries not read for {@code disk-ttl} are removed nightly.
+ * Only successful extractions are cached. Hits, misses, puts and evictions are published as
+ * {@code cache.*{cache=document-text}}.
+ */
+@Slf4j
+@Service
+public class DocumentTextCache implements MeterBinder {
+
+    // Part of every key: bump it when the extracted text would change for the same bytes
+    private static final String FORMAT_VERSION = "v1";
+    private static final String CACHE_NAME = "document-text";
+
+    @Value("${app.upload.dir:uploads}")
+    private String uploadDir;
+
+    @Value("${app.documents.cache.max-memory-size:10000000}")
+    private long maxMemoryChars;
+
+    @Value("${app.documents.cache.disk-ttl:30d}")
+    private Duration diskTtl;
+
+    private final Map<String, String> entries = new ConcurrentHashMap<>();
+    private final AtomicLong memoryChars = new AtomicLong();
+
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Cache key of a document: the SHA-256 of its bytes, digested while streaming them,
+     * plus the extension (the same bytes parse differently as .doc and .docx)
+     */
+    public String key(InputStreamSource source, String filename) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(source.getInputStream(), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        String extension = filename.toLowerCase(Locale.ROOT).endsWith(".docx") ? "docx" : "doc";
+        return HexFormat.of().formatHex(digest.digest()) + "-" + extension + "-" + FORMAT_VERSION;
+    }
+
+    /**
+     * Cached text of a document, from memory or disk (promoted to memory), or null on miss
+     */
+    public String get(String key) {
+        String text = entries.get(key);
+        if (text != null) {
+            memoryHits.increment();
+            return text;
+        }
+
+        Path file = diskPath(key);
+        try {
+            text = Files.readString(file, StandardCharsets.UTF_8);
+            // Read time drives the disk TTL
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+        } catch (NoSuchFileException e) {
+            misses.increment();
+            return null;
+        } catch (IOException e) {
+            log.warn("Could not read cached document text {}", file, e);
+            misses.increment();
+            return null;
+        }
+
+        diskHits.increment();
+        putInMemory(key, text);
+        return text;
+    }
+
+    public void put(String key, String text) {
+        puts.increment();
+        putInMemory(key, text);
+
+        Path file = diskPath(key);
+        try {
+            Files.createDirectories(file.getParent());
+            // Written aside and moved in, readers never see a partial file
+            Path temp = Files.createTempFile(file.getParent(), key, ".tmp");
+            try {
+                Files.writeString(temp, text, StandardCharsets.UTF_8);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            log.warn("Could not write cached document text {}", file, e);
+        }
+    }
+
+    /**
+     * Remove disk entries that were not read or written for {@code disk-ttl}
+     */
+    @Scheduled(cron = "${app.documents.cache.cleanup-cron:0 0 4 * * *}")
+    public void purgeDisk() {
+        Path root = cacheDir();
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(diskTtl);
+        try (Stream<Path> files = Files.walk(root)) {
+            long removed = files
+                    .filter(Files::isRegularFile)
+                    .filter(file -> lastModified(file).isBefore(cutoff))
+                    .filter(this::delete)
+                    .count();
+            if (removed > 0) {
+                log.info("Removed {} cached document texts not used since {}", removed, cutoff);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Could not clean the document text cache in {}", root, e);
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        memoryChars.set(0);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", this, cache -> cache.memoryHits.doubleValue() + cache.diskHits.doubleValue())
+                .tags("cache", CACHE_NAME, "result", "hit")
+                .description("Extractions served from the cache (memory or disk)")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::doubleValue)
+                .tags("cache", CACHE_NAME, "result", "miss")
+                .description("Extractions that had to parse the document")
+                .register(registry);
+        FunctionCounter.builder("cache.disk.hits", diskHits, LongAdder::doubleValue)
+                .tags("cache", CACHE_NAME)
+                .description("Hits served by the disk tier")
+                .register(registry);
+        FunctionCounter.builder("cache.puts", puts, LongAdder::doubleValue)
+                .tags("cache", CACHE_NAME)
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::doubleValue)
+                .tags("cache", CACHE_NAME)
+                .description("Entries dropped from the memory tier, still on disk")
+                .register(registry);
+        Gauge.builder("cache.size", entries, Map::size)
+                .tags("cache", CACHE_NAME)
+                .description("Entries in the memory tier")
+                .register(registry);
+        Gauge.builder("cache.memory.chars", memoryChars, AtomicLong::doubleValue)
+                .tags("cache", CACHE_NAME)
+                .description("Characters of text held in the memory tier")
+                .register(registry);
+    }
+
+    private void putInMemory(String key, String text) {
+        // A single huge document would push out everything else; it stays on disk only
+        if (text.length() > maxMemoryChars / 4) {
+            return;
+        }
+        String previous = entries.put(key, text);
+        long size = memoryChars.addAndGet(text.length() - (previous != null ? previous.length() : 0));
+        if (size > maxMemoryChars) {
+            purge(key);
+        }
+    }
+
+    /**
+     * Drop arbitrary entries (other than the one just added) until back under the bound;
+     * they are still on disk
+     */
+    private void purge(String keep) {
+        Iterator<Map.Entry<String, String>> it = entries.entrySet().iterator();
+        while (memoryChars.get() > maxMemoryChars && it.hasNext()) {
+            Map.Entry<String, String> entry = it.next();
+            if (entry.getKey().equals(keep)) {
+                continue;
+            }
+            if (entries.remove(entry.getKey(), entry.getValue())) {
+                memoryChars.addAndGet(-entry.getValue().length());
+                evictions.increment();
+            }
+        }
+    }
+
+    private Path cacheDir() {
+        return Paths.get(uploadDir, "document-text-cache");
+    }
+
+    private Path diskPath(String key) {
+        // Fan out by the first byte of the digest so no directory grows too large
+        return cacheDir().resolve(key.substring(0, 2)).resolve(key + ".txt");
+    }
+
+    private Instant lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant();
+        } catch (IOException e) {
+            // Removed meanwhile, or unreadable: leave it to the next run
+            return Instant.MAX;
+        }
+    }
+
+    private boolean delete(Path file) {
+        try {
+            return Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete cached document text {}", file, e);
+            return false;
+        }
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 không khả dụng", e);
+        }
+    }
+}
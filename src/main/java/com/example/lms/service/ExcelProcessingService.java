@@ -1,130 +1,286 @@
 package com.example.lms.service;
 
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.HSSFUserException;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
+import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.regex.Pattern;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 public class ExcelProcessingService {
-    
-    private static final Pattern EMAIL_PATTERN = Pattern.compile(
-        "^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$"
-    );
-    
+
     /**
-     * Extract email addresses from Excel file
-     * Supports both .xlsx and .xls formats
-     * Expects emails in first column or searches all columns for email-like values
+     * Stream email addresses from the first sheet of a roster on disk (e.g. the copy kept by a
+     * background enrollment job), one per row, without loading the workbook.
+     * .xlsx is read with the SAX event API, .xls with the HSSF record event model, so memory
+     * stays bounded by the shared strings table instead of the whole sheet.
+     * Each distinct (lowercased) email is emitted once, in file order. The format is taken
+     * from the extension.
      */
-    public List<String> extractEmailsFromExcel(MultipartFile file) throws IOException {
-        List<String> emails = new ArrayList<>();
-        
+    public void streamEmailsFromExcel(Path path, Consumer<String> sink) throws IOException {
+        Set<String> seen = new HashSet<>();
+        streamRows(path, email -> {
+            if (seen.add(email)) {
+                sink.accept(email);
+            }
+        });
+    }
+
+    private void streamRows(Path path, Consumer<String> sink) throws IOException {
+        RowEmailCollector collector = new RowEmailCollector(sink);
+        if (path.getFileName().toString().endsWith(".xlsx")) {
+            streamXlsx(path, collector);
+        } else {
+            streamXls(path, collector);
+        }
+    }
+
+    /**
+     * Validate the upload before any processing starts
+     */
+    public void validateExcelFile(MultipartFile file) {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("File is empty");
         }
-        
+
         String fileName = file.getOriginalFilename();
         if (fileName == null || (!fileName.endsWith(".xlsx") && !fileName.endsWith(".xls"))) {
             throw new IllegalArgumentException("File must be Excel format (.xlsx or .xls)");
         }
-        
-        try (Workbook workbook = createWorkbook(file)) {
-            Sheet sheet = workbook.getSheetAt(0); // Use first sheet
-            
-            for (Row row : sheet) {
-                if (row == null) continue;
-                
-                // Try first column first (most common case)
-                String email = getCellValueAsString(row.getCell(0));
-                if (isValidEmail(email)) {
-                    emails.add(email.toLowerCase().trim());
-                    continue;
-                }
-                
-                // If first column doesn't have email, search all columns in this row
-                for (Cell cell : row) {
-                    email = getCellValueAsString(cell);
-                    if (isValidEmail(email)) {
-                        emails.add(email.toLowerCase().trim());
-                        break; // Only take first email found in this row
-                    }
-                }
+    }
+
+    /**
+     * Read the first sheet of an .xlsx file through XSSFReader + shared strings table
+     */
+    private void streamXlsx(Path path, RowEmailCollector collector) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(path.toFile(), PackageAccess.READ)) {
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg, false);
+            XSSFReader reader = new XSSFReader(pkg);
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(
+                        reader.getStylesTable(), null, strings, collector, new DataFormatter(), false));
+                parser.parse(new InputSource(sheet));
             }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Không thể đọc file Excel: " + e.getMessage(), e);
         }
-        
-        // Remove duplicates while preserving order
-        return emails.stream().distinct().toList();
     }
-    
+
     /**
-     * Create appropriate workbook based on file extension
+     * Read the first sheet of an .xls file through the HSSF record event model
      */
-    private Workbook createWorkbook(MultipartFile file) throws IOException {
-        String fileName = file.getOriginalFilename();
-        if (fileName != null && fileName.endsWith(".xlsx")) {
-            return new XSSFWorkbook(file.getInputStream());
-        } else {
-            return new HSSFWorkbook(file.getInputStream());
+    private void streamXls(Path path, RowEmailCollector collector) throws IOException {
+        try (POIFSFileSystem fs = new POIFSFileSystem(path.toFile(), true)) {
+            HSSFRequest request = new HSSFRequest();
+            request.addListenerForAllRecords(new XlsRecordListener(collector));
+            new HSSFEventFactory().abortableProcessWorkbookEvents(request, fs);
+        } catch (HSSFUserException e) {
+            throw new IOException("Không thể đọc file Excel: " + e.getMessage(), e);
         }
     }
-    
+
     /**
-     * Get cell value as string regardless of cell type
+     * Validate and normalize an email candidate in a single pass.
+     * Same rule as the former {@code ^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\.[a-zA-Z]{2,}$} regex
+     * applied to the trimmed value, but without a Matcher or intermediate strings.
+     * @return the trimmed, lowercased email, or null if the value is not an email
      */
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) {
-            return "";
-        }
-        
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                // Handle numeric values that might be formatted as emails
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return "";
-                }
-                double numericValue = cell.getNumericCellValue();
-                // If it's a whole number, return as integer string
-                if (numericValue == (long) numericValue) {
-                    return String.valueOf((long) numericValue);
+    static String normalizeEmail(String value) {
+        if (value == null) {
+            return null;
+        }
+
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') start++;
+        while (end > start && value.charAt(end - 1) <= ' ') end--;
+
+        int at = -1;
+        int lastDot = -1;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c == '@') {
+                if (at >= 0) {
+                    return null;
                 }
-                return String.valueOf(numericValue);
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                // Evaluate formula and get result
-                FormulaEvaluator evaluator = cell.getSheet().getWorkbook().getCreationHelper().createFormulaEvaluator();
-                CellValue cellValue = evaluator.evaluate(cell);
-                switch (cellValue.getCellType()) {
-                    case STRING:
-                        return cellValue.getStringValue();
-                    case NUMERIC:
-                        return String.valueOf(cellValue.getNumberValue());
-                    case BOOLEAN:
-                        return String.valueOf(cellValue.getBooleanValue());
-                    default:
-                        return "";
+                at = i;
+            } else if (at < 0) {
+                if (!isAsciiLetterOrDigit(c) && c != '.' && c != '_' && c != '%' && c != '+' && c != '-') {
+                    return null;
                 }
-            default:
-                return "";
+            } else if (c == '.') {
+                lastDot = i;
+            } else if (!isAsciiLetterOrDigit(c) && c != '-') {
+                return null;
+            }
+        }
+
+        // local part, at least one domain char before the last dot, TLD of 2+ letters
+        if (at <= start || lastDot <= at + 1 || end - lastDot - 1 < 2) {
+            return null;
+        }
+        for (int i = lastDot + 1; i < end; i++) {
+            char c = value.charAt(i);
+            if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z'))) {
+                return null;
+            }
+        }
+
+        // Returns the same instance when nothing needs trimming or lowercasing
+        return value.substring(start, end).toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    /**
+     * Emits the first valid email of every row (cells arrive in column order,
+     * so a valid first column always wins, as before).
+     */
+    private static final class RowEmailCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final Consumer<String> sink;
+        private boolean rowDone;
+
+        RowEmailCollector(Consumer<String> sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            rowDone = false;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            value(formattedValue);
+        }
+
+        void value(String value) {
+            if (rowDone) {
+                return;
+            }
+            String email = normalizeEmail(value);
+            if (email != null) {
+                rowDone = true;
+                sink.accept(email);
+            }
         }
     }
-    
+
     /**
-     * Validate email format
+     * HSSF listener: tracks the shared string table and feeds string cells of the first sheet
+     * to the collector, then aborts once that sheet ends.
      */
-    private boolean isValidEmail(String email) {
-        if (email == null || email.trim().isEmpty()) {
-            return false;
+    private static final class XlsRecordListener extends AbortableHSSFListener {
+
+        private final RowEmailCollector collector;
+        private SSTRecord sst;
+        private int sheetIndex = -1;
+        private int currentRow = -1;
+        private boolean formulaStringPending;
+        private int formulaRow;
+
+        XlsRecordListener(RowEmailCollector collector) {
+            this.collector = collector;
+        }
+
+        @Override
+        public short abortableProcessRecord(Record record) {
+            switch (record.getSid()) {
+                case BOFRecord.sid:
+                    if (((BOFRecord) record).getType() == BOFRecord.TYPE_WORKSHEET) {
+                        sheetIndex++;
+                    }
+                    break;
+                case SSTRecord.sid:
+                    sst = (SSTRecord) record;
+                    break;
+                case EOFRecord.sid:
+                    if (sheetIndex == 0) {
+                        return 1; // first sheet done, stop reading
+                    }
+                    break;
+                case LabelSSTRecord.sid:
+                    if (sheetIndex == 0 && sst != null) {
+                        LabelSSTRecord label = (LabelSSTRecord) record;
+                        cell(label.getRow(), sst.getString(label.getSSTIndex()).getString());
+                    }
+                    break;
+                case LabelRecord.sid:
+                    if (sheetIndex == 0) {
+                        LabelRecord label = (LabelRecord) record;
+                        cell(label.getRow(), label.getValue());
+                    }
+                    break;
+                case FormulaRecord.sid:
+                    if (sheetIndex == 0) {
+                        FormulaRecord formula = (FormulaRecord) record;
+                        // A string result is stored in the StringRecord that follows
+                        formulaStringPending = formula.hasCachedResultString();
+                        formulaRow = formula.getRow();
+                    }
+                    break;
+                case StringRecord.sid:
+                    if (formulaStringPending) {
+                        formulaStringPending = false;
+                        cell(formulaRow, ((StringRecord) record).getString());
+                    }
+                    break;
+                default:
+                    break;
+            }
+            return 0;
+        }
+
+        private void cell(int row, String value) {
+            if (row != currentRow) {
+                currentRow = row;
+                collector.startRow(row);
+            }
+            collector.value(value);
         }
-        return EMAIL_PATTERN.matcher(email.trim()).matches();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,226 @@
+package com.example.lms.service;
+
+import com.example.lms.entity.StoredFile;
+import com.example.lms.repository.StoredFileRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves uploaded files for {@code FileServeController} and keeps their HTTP metadata.
+ * Uploads are looked up as logical handles ({@link StoredFile}) whose blob digest doubles
+ * as the strong ETag; the bytes may be on local disk or in object storage. Files written
+ * before the blob store are served from their own path under the upload dir and hashed once,
+ * then re-checked against their size/mtime on each hit. Blob-backed entries are looked up
+ * again once older than {@code metadata-cache.ttl}, which bounds how long a handle deleted
+ * on another node keeps being served here.
+ */
+@Service
+@RequiredArgsConstructor
+public class FileServingService {
+
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    // Keyed by the first directory of the URL, i.e. the upload "type" (see FileUploadService)
+    private static final Map<String, String> CACHE_CONTROL = Map.of(
+            "videos", IMMUTABLE,
+            "audio", IMMUTABLE,
+            "avatars", IMMUTABLE,
+            "courses", IMMUTABLE,
+            "documents", "public, max-age=86400",
+            "general", "public, max-age=86400",
+            "assignments", "private, max-age=3600"
+    );
+
+    private static final String DEFAULT_CACHE_CONTROL = "no-cache";
+
+    @Value("${app.upload.dir:uploads}")
+    private String uploadDir;
+
+    @Value("${app.files.metadata-cache.max-size:10000}")
+    private int maxCachedFiles;
+
+    @Value("${app.files.metadata-cache.ttl:60s}")
+    private Duration ttl;
+
+    private final StoredFileRepository storedFileRepository;
+    private final BlobStoreService blobStoreService;
+    private final StorageBackend storageBackend;
+
+    private Path uploadRoot;
+
+    // Keyed by the logical path type/yyyy/MM/filename
+    private final Map<String, Entry> metadata = new ConcurrentHashMap<>();
+
+    // Bumped on every eviction: a file resolved before it may be stale and is not cached
+    private final AtomicLong evictions = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        uploadRoot = Paths.get(uploadDir).toAbsolutePath().normalize();
+    }
+
+    /**
+     * @return the file with its cached metadata, or null if it does not exist
+     *         or lies outside the upload directory
+     */
+    public ServedFile resolve(String type, String year, String month, String filename) throws IOException {
+        String logicalPath = type + "/" + year + "/" + month + "/" + filename;
+        Entry entry = metadata.get(logicalPath);
+        if (entry != null) {
+            ServedFile cached = entry.file();
+            // Blob contents never change, but the handle may be deleted; legacy files are checked against the disk
+            if (cached.key() != null) {
+                if (entry.checkedAt().plus(ttl).isAfter(Instant.now())) {
+                    return cached;
+                }
+            } else {
+                BasicFileAttributes attrs = attributes(cached.path());
+                if (attrs != null && cached.length() == attrs.size()
+                        && cached.lastModified() == attrs.lastModifiedTime().toMillis()) {
+                    return cached;
+                }
+            }
+            metadata.remove(logicalPath, entry);
+        }
+
+        long stamp = evictions.get();
+
+        ServedFile file;
+        MediaType mediaType = MediaTypeFactory.getMediaType(filename).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        String cacheControl = CACHE_CONTROL.getOrDefault(type, DEFAULT_CACHE_CONTROL);
+        StoredFile stored = storedFileRepository.findByPath(logicalPath).orElse(null);
+        if (stored != null) {
+            String key = blobStoreService.keyOf(stored.getBlobSha256());
+            StorageBackend.ObjectInfo info = storageBackend.stat(key);
+            if (info == null) {
+                return null;
+            }
+            file = new ServedFile(
+                    key,
+                    storageBackend.localPath(key).orElse(null),
+                    info.size(),
+                    info.lastModified().toEpochMilli(),
+                    "\"" + stored.getBlobSha256().substring(0, 32) + "\"",
+                    mediaType,
+                    cacheControl);
+        } else {
+            // Uploaded before the blob store existed, always on this node's disk
+            Path path = uploadRoot.resolve(logicalPath).normalize();
+            if (!path.startsWith(uploadRoot) || "blobs".equals(type)) {
+                return null;
+            }
+            BasicFileAttributes attrs = attributes(path);
+            if (attrs == null || !attrs.isRegularFile()) {
+                return null;
+            }
+            file = new ServedFile(
+                    null,
+                    path,
+                    attrs.size(),
+                    attrs.lastModifiedTime().toMillis(),
+                    "\"" + contentHash(path) + "\"",
+                    mediaType,
+                    cacheControl);
+        }
+
+        if (metadata.size() >= maxCachedFiles) {
+            trim();
+        }
+        if (evictions.get() == stamp) {
+            metadata.put(logicalPath, new Entry(file, Instant.now()));
+        }
+        return file;
+    }
+
+    /**
+     * Forget a logical file, e.g. after its handle was deleted, now and once the current
+     * transaction has completed (a concurrent request may have cached the row in between)
+     */
+    public void evict(String logicalPath) {
+        evictNow(logicalPath);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictNow(logicalPath);
+                }
+            });
+        }
+    }
+
+    private void evictNow(String logicalPath) {
+        evictions.incrementAndGet();
+        metadata.remove(logicalPath);
+    }
+
+    private BasicFileAttributes attributes(Path path) throws IOException {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private void trim() {
+        // Dropped entries are simply hashed again on their next hit
+        Iterator<String> it = metadata.keySet().iterator();
+        while (metadata.size() >= maxCachedFiles && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private String contentHash(Path path) throws IOException {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 không khả dụng", e);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                md.update(buffer);
+                buffer.clear();
+            }
+        }
+        // 128 bits are plenty to tell two versions of a file apart
+        return HexFormat.of().formatHex(md.digest(), 0, 16);
+    }
+
+    /**
+     * @param key  storage key for blob-backed files, null for legacy files
+     * @param path local file when the bytes are on this node's disk (sendfile), null otherwise
+     */
+    public record ServedFile(String key, Path path, long length, long lastModified, String etag,
+                             MediaType mediaType, String cacheControl) {}
+
+    private record Entry(ServedFile file, Instant checkedAt) {}
+}
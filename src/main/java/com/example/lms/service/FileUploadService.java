@@ -1,20 +1,26 @@
 package com.example.lms.service;
 
+import com.example.lms.entity.StoredFile;
 import com.example.lms.entity.User;
+import com.example.lms.repository.LessonAttachmentRepository;
+import com.example.lms.repository.StoredFileRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
 import java.util.UUID;
 
@@ -23,12 +29,25 @@ import java.util.UUID;
 @Transactional
 public class FileUploadService {
 
-    @Value("${app.upload.dir:uploads}")
-    private String uploadDir;
+    private static final String FILES_PATH = "/api/v1/files/";
+    private static final String INCOMING_PREFIX = "incoming/";
+
+    private final BlobStoreService blobStoreService;
+    private final StoredFileRepository storedFileRepository;
+    private final LessonAttachmentRepository lessonAttachmentRepository;
+    private final FileServingService fileServingService;
+    private final StorageBackend storageBackend;
+    private final UrlSigner urlSigner;
 
     @Value("${app.upload.max-size:10485760}") // 10MB default
     private long maxFileSize;
 
+    @Value("${app.upload.presigned-max-size:1073741824}") // 1GB default
+    private long maxPresignedFileSize;
+
+    @Value("${app.storage.presign-ttl:PT15M}")
+    private Duration presignTtl;
+
     @Value("${app.base-url:http://localhost:8088}")
     private String baseUrl;
 
@@ -45,32 +64,35 @@ public class FileUploadService {
         validateFile(file);
         
         try {
-            // Create upload directory if it doesn't exist
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-
             // Generate unique filename
             String originalFileName = file.getOriginalFilename();
             String fileExtension = getFileExtension(originalFileName);
             String fileName = generateUniqueFileName(originalFileName, fileExtension);
             
-            // Create subdirectory based on file type and date
+            // Logical location based on file type and date; the bytes go to the blob store
             String subDir = getSubdirectory(request.getType());
-            Path targetPath = uploadPath.resolve(subDir);
-            if (!Files.exists(targetPath)) {
-                Files.createDirectories(targetPath);
-            }
+            String path = subDir + "/" + fileName;
 
-            // Save file
-            Path filePath = targetPath.resolve(fileName);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            // Save file (stored once per distinct content)
+            String sha256;
+            try (InputStream in = file.getInputStream()) {
+                sha256 = blobStoreService.store(in);
+            }
+            
+            StoredFile storedFile = storedFileRepository.save(StoredFile.builder()
+                    .path(path)
+                    .blobSha256(sha256)
+                    .originalFileName(originalFileName)
+                    .contentType(file.getContentType())
+                    .fileSize(file.getSize())
+                    .uploadedBy(currentUser != null ? currentUser.getId() : null)
+                    .build());
 
             // Generate file URL
-            String fileUrl = baseUrl + "/api/v1/files/" + subDir + "/" + fileName;
+            String fileUrl = baseUrl + FILES_PATH + path;
 
             return com.example.lms.controller.FileUploadController.FileUploadResponse.builder()
+                    .fileId(storedFile.getId().toString())
                     .fileName(fileName)
                     .originalFileName(originalFileName)
                     .fileUrl(fileUrl)
@@ -84,6 +106,14 @@ public class FileUploadService {
         }
     }
 
+    /**
+     * Release the logical handle behind a file URL; the blob goes away with its last reference.
+     * URLs of files uploaded before the blob store have no handle and are left alone.
+     */
+    public void releaseFile(String fileUrl) {
+        storedFileRepository.findByPath(toStoredPath(fileUrl)).ifPresent(this::release);
+    }
+
     public com.example.lms.controller.FileUploadController.SignedUrlResponse generateSignedUrl(
             User currentUser,
             com.example.lms.controller.FileUploadController.GenerateSignedUrlRequest request) {
@@ -94,9 +124,9 @@ public class FileUploadService {
             throw new RuntimeException("Loại file không được hỗ trợ: " + fileExtension);
         }
 
-        // Validate file size
-        if (request.getFileSize() > maxFileSize) {
-            throw new RuntimeException("Kích thước file vượt quá giới hạn cho phép: " + maxFileSize + " bytes");
+        // Validate file size (presigned uploads do not go through the API, so they get their own limit)
+        if (request.getFileSize() <= 0 || request.getFileSize() > maxPresignedFileSize) {
+            throw new RuntimeException("Kích thước file vượt quá giới hạn cho phép: " + maxPresignedFileSize + " bytes");
         }
 
         // Generate unique filename
@@ -104,16 +134,20 @@ public class FileUploadService {
         
         // Create subdirectory based on file type
         String subDir = getSubdirectory(request.getType());
+        String path = subDir + "/" + fileName;
         
-        // Generate signed URL (in a real implementation, this would be a pre-signed URL for cloud storage)
-        String uploadUrl = baseUrl + "/api/v1/files/upload-signed/" + subDir + "/" + fileName;
-        String fileUrl = baseUrl + "/api/v1/files/" + subDir + "/" + fileName;
+        // The client uploads straight to storage; validateUpload later moves it into the blob store
+        String uploadId = UUID.randomUUID().toString();
+        Instant expiresAt = Instant.now().plus(presignTtl);
+        String uploadUrl = storageBackend.presignPut(INCOMING_PREFIX + uploadId, request.getFileSize(), presignTtl);
+        String fileUrl = baseUrl + FILES_PATH + path;
 
         return com.example.lms.controller.FileUploadController.SignedUrlResponse.builder()
                 .uploadUrl(uploadUrl)
                 .fileUrl(fileUrl)
+                .fileId(uploadToken(uploadId, path, request.getFileSize(), currentUser.getId(), expiresAt, request.getFileName()))
                 .fileName(fileName)
-                .expiresAt(LocalDateTime.now().plusHours(1)) // URL expires in 1 hour
+                .expiresAt(LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()))
                 .build();
     }
 
@@ -181,22 +215,107 @@ public class FileUploadService {
         }
     }
 
+    /**
+     * Finish a presigned upload: check the object the client PUT and register it like a regular upload.
+     * Calling it again for the same upload is a no-op.
+     * @return false if the upload token is not valid or nothing (of the announced size) was uploaded
+     */
     public boolean validateUpload(User currentUser, com.example.lms.controller.FileUploadController.ValidateUploadRequest request) {
-        // Simple validation - in a real implementation, this would verify the upload
-        return request.getFileUrl() != null && !request.getFileUrl().trim().isEmpty();
+        String[] token = parseUploadToken(request.getFileId());
+        if (token == null) {
+            return false;
+        }
+        String uploadId = token[0];
+        String path = token[1];
+        long fileSize = Long.parseLong(token[2]);
+        String originalFileName = token[5];
+        if (!token[3].equals(String.valueOf(currentUser.getId()))) {
+            throw new RuntimeException("Không có quyền xác thực file này");
+        }
+        
+        if (storedFileRepository.findByPath(path).isPresent()) {
+            return true;
+        }
+        
+        try {
+            String incomingKey = INCOMING_PREFIX + uploadId;
+            StorageBackend.ObjectInfo info = storageBackend.stat(incomingKey);
+            if (info == null || info.size() != fileSize) {
+                return false;
+            }
+            
+            String sha256 = blobStoreService.adopt(incomingKey);
+            storedFileRepository.save(StoredFile.builder()
+                    .path(path)
+                    .blobSha256(sha256)
+                    .originalFileName(originalFileName)
+                    .contentType(MediaTypeFactory.getMediaType(originalFileName)
+                            .map(Object::toString).orElse(null))
+                    .fileSize(fileSize)
+                    .uploadedBy(currentUser.getId())
+                    .build());
+            return true;
+        } catch (IOException e) {
+            throw new RuntimeException("Lỗi khi xác thực file: " + e.getMessage(), e);
+        }
     }
 
     public void deleteFile(User currentUser, com.example.lms.controller.FileUploadController.DeleteFileRequest request) {
-        // In a real implementation, this would delete the file from storage
-        // For now, we'll just validate the file URL
         if (request.getFileUrl() == null || request.getFileUrl().trim().isEmpty()) {
             throw new RuntimeException("File URL không hợp lệ");
         }
         
-        // Extract file path from URL and delete
-        // This is a simplified implementation
-        // Extract file path from URL if needed for future physical deletion
-        // String fileName = request.getFileUrl().substring(request.getFileUrl().lastIndexOf("/") + 1);
-        // TODO: Implement physical deletion if files are stored locally or in cloud storage
+        StoredFile storedFile = storedFileRepository.findByPath(toStoredPath(request.getFileUrl().trim()))
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy file"));
+        
+        if (currentUser.getRole() != User.Role.ADMIN && !currentUser.getId().equals(storedFile.getUploadedBy())) {
+            throw new RuntimeException("Không có quyền xóa file");
+        }
+        if (lessonAttachmentRepository.existsByFileUrl(request.getFileUrl().trim())) {
+            throw new RuntimeException("File đang được sử dụng trong bài học");
+        }
+        
+        release(storedFile);
+    }
+
+    private void release(StoredFile storedFile) {
+        storedFileRepository.delete(storedFile);
+        blobStoreService.release(storedFile.getBlobSha256());
+        fileServingService.evict(storedFile.getPath());
+    }
+
+    /**
+     * Signed, self-contained description of a pending presigned upload, so any node can finish it
+     */
+    private String uploadToken(String uploadId, String path, long fileSize, UUID userId,
+                               Instant expiresAt, String originalFileName) {
+        String payload = String.join("|", uploadId, path, String.valueOf(fileSize), String.valueOf(userId),
+                String.valueOf(expiresAt.getEpochSecond()), originalFileName);
+        String encoded = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return encoded + "." + urlSigner.sign(encoded);
+    }
+
+    /**
+     * @return [uploadId, path, fileSize, userId, expiresAt, originalFileName] or null if invalid/expired
+     */
+    private String[] parseUploadToken(String token) {
+        int dot = token != null ? token.lastIndexOf('.') : -1;
+        if (dot < 0 || !urlSigner.verify(token.substring(0, dot), token.substring(dot + 1))) {
+            return null;
+        }
+        String[] parts = new String(Base64.getUrlDecoder().decode(token.substring(0, dot)), StandardCharsets.UTF_8)
+                .split("\\|", 6);
+        if (parts.length != 6) {
+            return null;
+        }
+        // The object may still be finishing its upload when the URL expires: allow one more TTL to validate
+        long deadline = Long.parseLong(parts[4]) + presignTtl.getSeconds();
+        return deadline >= Instant.now().getEpochSecond() ? parts : null;
+    }
+
+    private String toStoredPath(String fileUrl) {
+        int index = fileUrl.indexOf(FILES_PATH);
+        return index >= 0 ? fileUrl.substring(index + FILES_PATH.length()) : fileUrl;
     }
-}
\ No newline at end of file
+}
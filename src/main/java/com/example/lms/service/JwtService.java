@@ -1,22 +1,30 @@
 package com.example.lms.service;
 
+import com.example.lms.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import javax.crypto.SecretKey;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HexFormat;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+
     @Value("${app.jwt.secret}")
     private String jwtSecret;
 
@@ -26,6 +34,49 @@ public class JwtService {
     @Value("${app.jwt.refresh-expiration}")
     private int refreshExpirationInMs;
 
+    // Stateless mode: access tokens carry id/role/version and are trusted without a user lookup,
+    // so they are kept short-lived to bound how long a revoked token stays usable on other nodes
+    @Value("${app.jwt.stateless.enabled:false}")
+    private boolean statelessMode;
+
+    @Value("${app.jwt.stateless.expiration:900000}")
+    private int statelessExpirationInMs;
+
+    // Built once: hex-decoding the secret and building a parser on every call is pure overhead.
+    // Both objects are immutable and safe to share between (virtual) threads.
+    private SecretKey signInKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        byte[] keyBytes = HexFormat.of().parseHex(jwtSecret);
+        this.signInKey = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parser()
+                .verifyWith(signInKey)
+                .build();
+    }
+
+    /**
+     * Verify the signature once and return the claims the app cares about.
+     * @throws RuntimeException if the token is malformed, forged or expired
+     */
+    public TokenClaims verify(String token) {
+        Claims claims = extractAllClaims(token);
+        Date expiration = claims.getExpiration();
+        Object userId = claims.get(CLAIM_USER_ID);
+        return new TokenClaims(
+                claims.getSubject(),
+                expiration != null ? expiration.toInstant() : null,
+                claims.get(CLAIM_ROLE, String.class),
+                userId != null ? UUID.fromString(userId.toString()) : null,
+                claims.get(CLAIM_TOKEN_VERSION, Integer.class)
+        );
+    }
+
+    public boolean isStatelessMode() {
+        return statelessMode;
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -40,11 +91,24 @@ public class JwtService {
     }
 
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return buildToken(extraClaims, userDetails, jwtExpirationInMs);
+        Map<String, Object> claims = new HashMap<>(extraClaims);
+        if (userDetails instanceof User user) {
+            claims.put(CLAIM_USER_ID, user.getId().toString());
+            claims.put(CLAIM_ROLE, user.getRole().name());
+            claims.put(CLAIM_TOKEN_VERSION, user.getTokenVersion() != null ? user.getTokenVersion() : 0);
+        }
+        return buildToken(claims, userDetails, statelessMode ? statelessExpirationInMs : jwtExpirationInMs);
     }
 
+    /**
+     * Carries the token version too, so revoking a user also retires their refresh tokens
+     */
     public String generateRefreshToken(UserDetails userDetails) {
-        return buildToken(new HashMap<>(), userDetails, refreshExpirationInMs);
+        Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof User user) {
+            claims.put(CLAIM_TOKEN_VERSION, user.getTokenVersion() != null ? user.getTokenVersion() : 0);
+        }
+        return buildToken(claims, userDetails, refreshExpirationInMs);
     }
 
     private String buildToken(
@@ -58,28 +122,18 @@ public class JwtService {
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey())
+                .signWith(signInKey)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        final TokenClaims claims = verify(token);
+        return (claims.subject().equals(userDetails.getUsername())) && !claims.isExpired();
     }
 
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith((SecretKey) getSignInKey())
-                    .build()
+            return parser
                     .parseSignedClaims(token)
                     .getPayload();
         } catch (ExpiredJwtException e) {
@@ -93,8 +147,13 @@ public class JwtService {
         }
     }
 
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = HexFormat.of().parseHex(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * Immutable view of a verified token
+     */
+    public record TokenClaims(String subject, Instant expiresAt, String role, UUID userId, Integer tokenVersion) {
+
+        public boolean isExpired() {
+            return expiresAt == null || !expiresAt.isAfter(Instant.now());
+        }
     }
 }
\ No newline at end of file
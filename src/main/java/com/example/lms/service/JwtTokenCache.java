@@ -0,0 +1,147 @@
+package com.example.lms.service;
+
+import com.example.lms.entity.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of already verified access tokens.
+ * Keyed by the SHA-256 digest of the token so raw tokens are never kept in memory.
+ * Each entry lives until the token's own expiry or until the user is evicted.
+ * The cached principal is a read-only snapshot without the password hash: anything that
+ * changes the account must load the managed {@link User} instead.
+ */
+@Service
+public class JwtTokenCache {
+
+    @Value("${app.jwt.cache.max-size:10000}")
+    private int maxSize;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Bumped on every eviction: a user loaded before it may be stale and is not cached
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Return a per-request copy of the cached principal, or null on miss/expiry
+     */
+    public User get(String token) {
+        String key = digest(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.expiresAt().isAfter(Instant.now())) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return copyOf(entry.principal());
+    }
+
+    /**
+     * Take before loading the user whose token is about to be cached
+     */
+    public long evictionStamp() {
+        return evictions.get();
+    }
+
+    /**
+     * Cache the principal of a verified token, unless a user was evicted since {@code stamp}
+     */
+    public void put(String token, User user, Instant expiresAt, long stamp) {
+        if (entries.size() >= maxSize) {
+            purge();
+        }
+        if (evictions.get() == stamp) {
+            entries.put(digest(token), new Entry(copyOf(user), expiresAt));
+        }
+    }
+
+    /**
+     * Drop every cached token of a user, e.g. after a role change, account lock or password
+     * change; now and once the current transaction has completed (a concurrent miss may have
+     * loaded the old row in between)
+     */
+    public void evictUser(UUID userId) {
+        if (userId == null) {
+            return;
+        }
+        evictNow(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictNow(userId);
+                }
+            });
+        }
+    }
+
+    private void evictNow(UUID userId) {
+        evictions.incrementAndGet();
+        entries.values().removeIf(entry -> userId.equals(entry.principal().getId()));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void purge() {
+        Instant now = Instant.now();
+        entries.values().removeIf(entry -> !entry.expiresAt().isAfter(now));
+
+        // Still full: drop arbitrary entries, they will simply be re-verified
+        Iterator<String> it = entries.keySet().iterator();
+        while (entries.size() >= maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    /**
+     * Copy scalar state only, without the password hash. enrolledCourses is left empty: the
+     * loaded set is a lazy collection bound to the session that read the user, unusable from
+     * the other requests sharing this copy. Nothing saves the principal, it is reloaded first.
+     */
+    private User copyOf(User user) {
+        return User.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .fullName(user.getFullName())
+                .role(user.getRole())
+                .enabled(user.getEnabled())
+                .tokenVersion(user.getTokenVersion())
+                .createdAt(user.getCreatedAt())
+                .updatedAt(user.getUpdatedAt())
+                .build();
+    }
+
+    private String digest(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 không khả dụng", e);
+        }
+    }
+
+    private record Entry(User principal, Instant expiresAt) {}
+}
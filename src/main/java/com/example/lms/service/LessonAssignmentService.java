@@ -7,11 +7,18 @@ import com.example.lms.entity.User;
 import com.example.lms.repository.LessonAssignmentRepository;
 import com.example.lms.repository.LessonRepository;
 import com.example.lms.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -22,6 +29,12 @@ public class LessonAssignmentService {
     private final LessonAssignmentRepository lessonAssignmentRepository;
     private final LessonRepository lessonRepository;
     private final UserRepository userRepository;
+    private final CourseStatsService courseStatsService;
+    private final CourseAccessService courseAccessService;
+    private final EntityManager entityManager;
+
+    @Value("${app.jpa.bulk-chunk-size:500}")
+    private int chunkSize;
 
     public LessonAssignment assignLessonToStudent(UUID lessonId, UUID studentId, User currentUser) {
         Lesson lesson = lessonRepository.findById(lessonId)
@@ -35,10 +48,12 @@ public class LessonAssignmentService {
             throw new RuntimeException("Bạn không có quyền phân phối bài học này");
         }
 
-        // Ensure the student is enrolled in the course; update owning side (User.enrolledCourses)
-        if (!course.getEnrolledStudents().contains(student)) {
-            student.getEnrolledCourses().add(course);
-            userRepository.save(student);
+        // Ensure the student is enrolled in the course (join row only, the student's course set is not loaded)
+        if (!courseAccessService.isEnrolled(course.getId(), student.getId())) {
+            if (userRepository.insertEnrollments(course.getId(), List.of(student.getId())) > 0) {
+                courseStatsService.adjustEnrollments(course.getId(), 1);
+            }
+            courseAccessService.evict(student.getId());
         }
 
         // Create if not exists
@@ -51,6 +66,57 @@ public class LessonAssignmentService {
         return lessonAssignmentRepository.save(la);
     }
 
+    /**
+     * Assign a lesson to many students at once. Students are processed in chunks: per chunk
+     * one query filters out non-students, one skips existing assignments, one INSERT enrolls
+     * the rest, and the new assignments go out as JDBC batches before the persistence context
+     * is cleared, so memory stays flat however long the list is.
+     *
+     * @return number of assignments created (already assigned and unknown ids are skipped)
+     */
+    public int assignLessonToStudents(UUID lessonId, Collection<UUID> studentIds, User currentUser) {
+        Lesson lesson = lessonRepository.findById(lessonId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy bài học với ID: " + lessonId));
+        Course course = lesson.getSection().getCourse();
+        if (!course.getTeacher().getId().equals(currentUser.getId())) {
+            throw new RuntimeException("Bạn không có quyền phân phối bài học này");
+        }
+        UUID courseId = course.getId();
+
+        List<UUID> distinct = new ArrayList<>(new LinkedHashSet<>(studentIds));
+        int created = 0;
+        for (int from = 0; from < distinct.size(); from += chunkSize) {
+            List<UUID> chunk = distinct.subList(from, Math.min(from + chunkSize, distinct.size()));
+            List<UUID> students = userRepository.findIdsByIdInAndRole(chunk, User.Role.STUDENT);
+            if (students.isEmpty()) {
+                continue;
+            }
+
+            int enrolled = userRepository.insertEnrollments(courseId, students);
+            if (enrolled > 0) {
+                courseStatsService.adjustEnrollments(courseId, enrolled);
+            }
+            courseAccessService.evict(students);
+
+            Set<UUID> assigned = new HashSet<>(lessonAssignmentRepository.findAssignedStudentIds(lessonId, students));
+            List<LessonAssignment> batch = new ArrayList<>(students.size());
+            for (UUID studentId : students) {
+                if (!assigned.contains(studentId)) {
+                    batch.add(LessonAssignment.builder()
+                            .lesson(lessonRepository.getReferenceById(lessonId))
+                            .student(userRepository.getReferenceById(studentId))
+                            .build());
+                }
+            }
+            lessonAssignmentRepository.saveAll(batch);
+            created += batch.size();
+
+            entityManager.flush();
+            entityManager.clear();
+        }
+        return created;
+    }
+
     public void unassignLessonFromStudent(UUID lessonId, UUID studentId, User currentUser) {
         Lesson lesson = lessonRepository.findById(lessonId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy bài học với ID: " + lessonId));
@@ -6,13 +6,23 @@ import com.example.lms.entity.LessonAttachment;
 import com.example.lms.entity.User;
 import com.example.lms.repository.LessonAttachmentRepository;
 import com.example.lms.repository.LessonRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -23,6 +33,8 @@ public class LessonAttachmentService {
     private final LessonAttachmentRepository attachmentRepository;
     private final LessonRepository lessonRepository;
     private final FileUploadService fileUploadService;
+    private final CourseAccessService courseAccessService;
+    private final EntityManager entityManager;
 
     private static final List<String> ALLOWED_EXTENSIONS = Arrays.asList(
         "pdf", "doc", "docx", "ppt", "pptx", "xls", "xlsx", "mp4", "avi", "mov", "mp3", "wav"
@@ -96,8 +108,7 @@ public class LessonAttachmentService {
 
         // Check permissions
         Course course = lesson.getSection().getCourse();
-        boolean hasAccess = course.getTeacher().getId().equals(currentUser.getId()) ||
-                           course.getEnrolledStudents().contains(currentUser);
+        boolean hasAccess = courseAccessService.canAccess(course, currentUser);
 
         if (!hasAccess) {
             throw new RuntimeException("Không có quyền truy cập file đính kèm");
@@ -116,6 +127,7 @@ public class LessonAttachmentService {
         }
 
         attachmentRepository.delete(attachment);
+        fileUploadService.releaseFile(attachment.getFileUrl());
     }
 
     public LessonAttachment reorderAttachment(UUID attachmentId, User currentUser, Integer newDisplayOrder) {
@@ -128,9 +140,62 @@ public class LessonAttachmentService {
         }
 
         attachment.setDisplayOrder(newDisplayOrder);
+        evictAttachmentOrder(attachment.getLesson().getId());
         return attachmentRepository.save(attachment);
     }
 
+    /**
+     * Set the whole display order of a lesson's attachments: {@code attachmentIds} lists every
+     * attachment of the lesson, first to last. The changed rows are flushed as one JDBC batch.
+     */
+    public List<LessonAttachment> reorderAttachments(UUID lessonId, User currentUser, List<UUID> attachmentIds) {
+        Lesson lesson = lessonRepository.findById(lessonId)
+            .orElseThrow(() -> new RuntimeException("Không tìm thấy bài học"));
+
+        // Check permissions
+        if (!lesson.getSection().getCourse().getTeacher().getId().equals(currentUser.getId())) {
+            throw new RuntimeException("Không có quyền chỉnh sửa file đính kèm");
+        }
+
+        List<LessonAttachment> attachments = attachmentRepository.findByLessonIdOrderByDisplayOrderAsc(lessonId);
+        Map<UUID, LessonAttachment> byId = new HashMap<>();
+        attachments.forEach(attachment -> byId.put(attachment.getId(), attachment));
+        // Exactly the lesson's attachments, each once: a repeated id would leave another one unordered
+        Set<UUID> requested = new HashSet<>(attachmentIds);
+        if (requested.size() != attachmentIds.size() || !requested.equals(byId.keySet())) {
+            throw new RuntimeException("Danh sách file đính kèm không khớp với bài học");
+        }
+
+        List<LessonAttachment> ordered = new ArrayList<>(attachmentIds.size());
+        for (int i = 0; i < attachmentIds.size(); i++) {
+            LessonAttachment attachment = byId.get(attachmentIds.get(i));
+            if (!Integer.valueOf(i).equals(attachment.getDisplayOrder())) {
+                attachment.setDisplayOrder(i);
+            }
+            ordered.add(attachment);
+        }
+        evictAttachmentOrder(lessonId);
+        return ordered;
+    }
+
+    /**
+     * The cached Lesson.attachments entry holds the ids in display order: drop it now, and
+     * again once the transaction has completed (a read in between may have cached the old order)
+     */
+    private void evictAttachmentOrder(UUID lessonId) {
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        String role = Lesson.class.getName() + ".attachments";
+        cache.evictCollectionData(role, lessonId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evictCollectionData(role, lessonId);
+                }
+            });
+        }
+    }
+
     private void validateFile(MultipartFile file) {
         if (file.isEmpty()) {
             throw new RuntimeException("File không được để trống");
@@ -19,6 +19,8 @@ public class LessonService {
 
     private final LessonRepository lessonRepository;
     private final SectionRepository sectionRepository;
+    private final CourseAccessService courseAccessService;
+    private final CourseOutlineService courseOutlineService;
 
     public Lesson createLesson(UUID sectionId, User currentUser, com.example.lms.controller.LessonController.CreateLessonRequest request) {
         Section section = sectionRepository.findById(sectionId)
@@ -44,11 +46,12 @@ public class LessonService {
                 .section(section)
                 .build();
 
+        courseOutlineService.invalidate(section.getCourse().getId());
         return lessonRepository.save(lesson);
     }
 
     public Lesson updateLesson(UUID lessonId, User currentUser, com.example.lms.controller.LessonController.UpdateLessonRequest request) {
-        Lesson lesson = lessonRepository.findById(lessonId)
+        Lesson lesson = lessonRepository.findWithContextById(lessonId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy bài học với ID: " + lessonId));
         
         // Check if user is the teacher of this course
@@ -78,6 +81,7 @@ public class LessonService {
             lesson.setOrderIndex(request.getOrderIndex());
         }
 
+        courseOutlineService.invalidate(lesson.getSection().getCourse().getId());
         return lessonRepository.save(lesson);
     }
 
@@ -93,16 +97,16 @@ public class LessonService {
         // Approval workflow removed: allow deleting lessons regardless of status
 
         lessonRepository.delete(lesson);
+        courseOutlineService.invalidate(lesson.getSection().getCourse().getId());
     }
 
     public Lesson getLessonById(UUID lessonId, User currentUser) {
-        Lesson lesson = lessonRepository.findById(lessonId)
+        Lesson lesson = lessonRepository.findWithContextById(lessonId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy bài học với ID: " + lessonId));
         
         // Check if user has access (is teacher or enrolled student)
         Course course = lesson.getSection().getCourse();
-        boolean hasAccess = course.getTeacher().getId().equals(currentUser.getId()) ||
-                          course.getEnrolledStudents().contains(currentUser);
+        boolean hasAccess = courseAccessService.canAccess(course, currentUser);
         
         if (!hasAccess) {
             throw new RuntimeException("Bạn không có quyền truy cập bài học này");
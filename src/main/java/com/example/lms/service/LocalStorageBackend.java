@@ -0,0 +1,182 @@
+package com.example.lms.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Stores objects as files under {@code app.upload.dir}.
+ * Presigned URLs point at {@code /api/v1/storage/{key}} on this API and are checked with {@link UrlSigner}.
+ */
+@Service
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "local", matchIfMissing = true)
+@RequiredArgsConstructor
+public class LocalStorageBackend implements StorageBackend {
+
+    public static final String PRESIGN_PATH = "/api/v1/storage/";
+
+    private final UrlSigner urlSigner;
+
+    @Value("${app.upload.dir:uploads}")
+    private String uploadDir;
+
+    @Value("${app.base-url:http://localhost:8088}")
+    private String baseUrl;
+
+    private Path root;
+
+    @PostConstruct
+    void init() {
+        root = Paths.get(uploadDir).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void put(String key, InputStream content, long contentLength, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        // Write next to the target, then rename: readers never see a partial file
+        Path tempFile = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                content.transferTo(out);
+            }
+            Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Override
+    public void putFile(String key, Path source, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Different file system (e.g. /tmp): fall back to a copy
+            StorageBackend.super.putFile(key, source, contentType);
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        return Files.newInputStream(resolve(key));
+    }
+
+    @Override
+    public InputStream getRange(String key, long start, long end) throws IOException {
+        FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ);
+        channel.position(start);
+        InputStream in = Channels.newInputStream(channel);
+        return new FilterInputStream(in) {
+            private long remaining = end - start + 1;
+
+            @Override
+            public int read() throws IOException {
+                if (remaining <= 0) return -1;
+                int b = super.read();
+                if (b >= 0) remaining--;
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if (remaining <= 0) return -1;
+                int n = super.read(buffer, offset, (int) Math.min(length, remaining));
+                if (n > 0) remaining -= n;
+                return n;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = super.skip(Math.min(n, remaining));
+                remaining -= skipped;
+                return skipped;
+            }
+        };
+    }
+
+    @Override
+    public ObjectInfo stat(String key) throws IOException {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(resolve(key), BasicFileAttributes.class);
+            return attrs.isRegularFile()
+                    ? new ObjectInfo(attrs.size(), attrs.lastModifiedTime().toInstant())
+                    : null;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void move(String fromKey, String toKey) throws IOException {
+        Path target = resolve(toKey);
+        Files.createDirectories(target.getParent());
+        Files.move(resolve(fromKey), target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public String presignPut(String key, long contentLength, Duration ttl) {
+        long expires = Instant.now().plus(ttl).getEpochSecond();
+        return baseUrl + PRESIGN_PATH + key + "?expires=" + expires + "&length=" + contentLength
+                + "&signature=" + urlSigner.sign(signedData("PUT", key, expires, contentLength));
+    }
+
+    @Override
+    public String presignGet(String key, Duration ttl) {
+        long expires = Instant.now().plus(ttl).getEpochSecond();
+        return baseUrl + PRESIGN_PATH + key + "?expires=" + expires
+                + "&signature=" + urlSigner.sign(signedData("GET", key, expires, -1));
+    }
+
+    /**
+     * Check a URL produced by {@link #presignPut} / {@link #presignGet}
+     * @param contentLength -1 for GET
+     */
+    public boolean verifyPresigned(String method, String key, long expires, long contentLength, String signature) {
+        return expires >= Instant.now().getEpochSecond()
+                && urlSigner.verify(signedData(method, key, expires, contentLength), signature);
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.of(resolve(key));
+    }
+
+    private String signedData(String method, String key, long expires, long contentLength) {
+        return method + "\n" + key + "\n" + expires + "\n" + contentLength;
+    }
+
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Invalid storage key: " + key);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.lms.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Object storage through the S3 REST API (AWS S3, MinIO, Ceph RGW, ...), signed with SigV4.
+ * Uses the JDK HTTP client only, bodies are streamed in both directions.
+ * Path-style addressing ({@code endpoint/bucket/key}) is the default because that is what
+ * self-hosted S3-compatible servers expect.
+ */
+@Service
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "s3")
+public class S3StorageBackend implements StorageBackend {
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    private static final String EMPTY_PAYLOAD_SHA256 =
+            "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+    private static final DateTimeFormatter AMZ_DATE =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter RFC_1123 = DateTimeFormatter.RFC_1123_DATE_TIME;
+
+    @Value("${app.storage.s3.endpoint:https://s3.amazonaws.com}")
+    private String endpoint;
+
+    @Value("${app.storage.s3.region:us-east-1}")
+    private String region;
+
+    @Value("${app.storage.s3.bucket:lms}")
+    private String bucket;
+
+    @Value("${app.storage.s3.access-key:}")
+    private String accessKey;
+
+    @Value("${app.storage.s3.secret-key:}")
+    private String secretKey;
+
+    @Value("${app.storage.s3.path-style:true}")
+    private boolean pathStyle;
+
+    private HttpClient httpClient;
+
+    @PostConstruct
+    void init() {
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @Override
+    public void put(String key, InputStream content, long contentLength, String contentType) throws IOException {
+        HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.fromPublisher(
+                HttpRequest.BodyPublishers.ofInputStream(() -> content), contentLength);
+        send("PUT", key, contentTypeHeader(contentType), body, HttpResponse.BodyHandlers.discarding());
+    }
+
+    @Override
+    public void putFile(String key, Path source, String contentType) throws IOException {
+        send("PUT", key, contentTypeHeader(contentType), HttpRequest.BodyPublishers.ofFile(source),
+                HttpResponse.BodyHandlers.discarding());
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        return send("GET", key, Map.of(), HttpRequest.BodyPublishers.noBody(),
+                HttpResponse.BodyHandlers.ofInputStream()).body();
+    }
+
+    @Override
+    public InputStream getRange(String key, long start, long end) throws IOException {
+        return send("GET", key, Map.of("range", "bytes=" + start + "-" + end), HttpRequest.BodyPublishers.noBody(),
+                HttpResponse.BodyHandlers.ofInputStream()).body();
+    }
+
+    @Override
+    public ObjectInfo stat(String key) throws IOException {
+        HttpResponse<Void> response = exchange("HEAD", key, Map.of(), HttpRequest.BodyPublishers.noBody(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 404) {
+            return null;
+        }
+        check(response, "HEAD", key);
+        long size = response.headers().firstValueAsLong("content-length").orElse(0);
+        Instant lastModified = response.headers().firstValue("last-modified")
+                .map(value -> RFC_1123.parse(value, Instant::from))
+                .orElse(Instant.EPOCH);
+        return new ObjectInfo(size, lastModified);
+    }
+
+    @Override
+    public void move(String fromKey, String toKey) throws IOException {
+        // Server-side copy, the bytes never pass through this node
+        HttpResponse<String> response = send("PUT", toKey,
+                Map.of("x-amz-copy-source", "/" + bucket + "/" + encodePath(fromKey)),
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.ofString());
+        // CopyObject answers 200 before copying; a copy that fails after that has an <Error> body
+        String body = response.body();
+        if (body.contains("<Error>")) {
+            throw new IOException("S3 PUT " + toKey + " (copy từ " + fromKey + ") thất bại: " + errorCode(body));
+        }
+        delete(fromKey);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        HttpResponse<Void> response = exchange("DELETE", key, Map.of(), HttpRequest.BodyPublishers.noBody(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 404) {
+            check(response, "DELETE", key);
+        }
+    }
+
+    @Override
+    public String presignPut(String key, long contentLength, Duration ttl) {
+        // Signing content-length makes S3 reject any body of a different size
+        return presign("PUT", key, Map.of("content-length", Long.toString(contentLength)), ttl, Instant.now());
+    }
+
+    @Override
+    public String presignGet(String key, Duration ttl) {
+        return presign("GET", key, Map.of(), ttl, Instant.now());
+    }
+
+    /**
+     * Query-string SigV4 (the "presigned URL" form)
+     */
+    String presign(String method, String key, Map<String, String> extraHeaders, Duration ttl, Instant now) {
+        String amzDate = AMZ_DATE.format(now);
+        String scope = amzDate.substring(0, 8) + "/" + region + "/s3/aws4_request";
+
+        Map<String, String> headers = new TreeMap<>(extraHeaders);
+        headers.put("host", host());
+
+        Map<String, String> query = new TreeMap<>();
+        query.put("X-Amz-Algorithm", ALGORITHM);
+        query.put("X-Amz-Credential", accessKey + "/" + scope);
+        query.put("X-Amz-Date", amzDate);
+        query.put("X-Amz-Expires", Long.toString(ttl.getSeconds()));
+        query.put("X-Amz-SignedHeaders", String.join(";", headers.keySet()));
+        String canonicalQuery = canonicalQuery(query);
+
+        String canonicalRequest = canonicalRequest(method, key, canonicalQuery, headers, UNSIGNED_PAYLOAD);
+        String signature = signature(amzDate, scope, canonicalRequest);
+        return baseUri() + canonicalUri(key) + "?" + canonicalQuery + "&X-Amz-Signature=" + signature;
+    }
+
+    /**
+     * Header SigV4: returns the headers to add to the request, Authorization included
+     */
+    Map<String, String> signHeaders(String method, String key, Map<String, String> extraHeaders,
+                                    String payloadHash, Instant now) {
+        String amzDate = AMZ_DATE.format(now);
+        String scope = amzDate.substring(0, 8) + "/" + region + "/s3/aws4_request";
+
+        Map<String, String> headers = new TreeMap<>(extraHeaders);
+        headers.put("host", host());
+        headers.put("x-amz-content-sha256", payloadHash);
+        headers.put("x-amz-date", amzDate);
+        String signedHeaders = String.join(";", headers.keySet());
+
+        String canonicalRequest = canonicalRequest(method, key, "", headers, payloadHash);
+        String signature = signature(amzDate, scope, canonicalRequest);
+
+        headers.remove("host"); // set by the HTTP client from the URI
+        headers.put("authorization", ALGORITHM + " Credential=" + accessKey + "/" + scope
+                + ", SignedHeaders=" + signedHeaders + ", Signature=" + signature);
+        return headers;
+    }
+
+    private <T> HttpResponse<T> send(String method, String key, Map<String, String> headers,
+                                     HttpRequest.BodyPublisher body, HttpResponse.BodyHandler<T> handler) throws IOException {
+        HttpResponse<T> response = exchange(method, key, headers, body, handler);
+        check(response, method, key);
+        return response;
+    }
+
+    private <T> HttpResponse<T> exchange(String method, String key, Map<String, String> headers,
+                                         HttpRequest.BodyPublisher body, HttpResponse.BodyHandler<T> handler) throws IOException {
+        // Bodies are streamed, so they are not hashed: S3 accepts UNSIGNED-PAYLOAD for that
+        String payloadHash = "PUT".equals(method) && body.contentLength() != 0 ? UNSIGNED_PAYLOAD : EMPTY_PAYLOAD_SHA256;
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUri() + canonicalUri(key)))
+                .method(method, body);
+        signHeaders(method, key, headers, payloadHash, Instant.now()).forEach(request::header);
+        try {
+            return httpClient.send(request.build(), handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("S3 " + method + " " + key + " bị gián đoạn", e);
+        }
+    }
+
+    private void check(HttpResponse<?> response, String method, String key) throws IOException {
+        int status = response.statusCode();
+        if (status / 100 != 2) {
+            if (response.body() instanceof InputStream in) {
+                in.close();
+            }
+            throw new IOException("S3 " + method + " " + key + " trả về HTTP " + status);
+        }
+    }
+
+    /**
+     * {@code Code} of an S3 error document, for the exception message
+     */
+    private static String errorCode(String body) {
+        int start = body.indexOf("<Code>");
+        int end = body.indexOf("</Code>", start);
+        return start >= 0 && end > start ? body.substring(start + "<Code>".length(), end) : "lỗi không xác định";
+    }
+
+    private Map<String, String> contentTypeHeader(String contentType) {
+        return contentType != null ? Map.of("content-type", contentType) : Map.of();
+    }
+
+    /**
+     * @param sortedHeaders the headers to sign, lowercase names in order, host included
+     */
+    String canonicalRequest(String method, String key, String canonicalQuery, Map<String, String> sortedHeaders,
+                            String payloadHash) {
+        return method + "\n" + canonicalUri(key) + "\n" + canonicalQuery + "\n"
+                + canonicalHeaders(sortedHeaders) + "\n" + String.join(";", sortedHeaders.keySet()) + "\n" + payloadHash;
+    }
+
+    String stringToSign(String amzDate, String scope, String canonicalRequest) {
+        return ALGORITHM + "\n" + amzDate + "\n" + scope + "\n" + sha256Hex(canonicalRequest);
+    }
+
+    private String signature(String amzDate, String scope, String canonicalRequest) {
+        String stringToSign = stringToSign(amzDate, scope, canonicalRequest);
+        byte[] key = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), amzDate.substring(0, 8));
+        key = hmac(key, region);
+        key = hmac(key, "s3");
+        key = hmac(key, "aws4_request");
+        return HexFormat.of().formatHex(hmac(key, stringToSign));
+    }
+
+    private String canonicalUri(String key) {
+        return (pathStyle ? "/" + bucket : "") + "/" + encodePath(key);
+    }
+
+    private String canonicalHeaders(Map<String, String> sortedHeaders) {
+        return sortedHeaders.entrySet().stream()
+                .map(e -> e.getKey() + ":" + e.getValue().trim() + "\n")
+                .collect(Collectors.joining());
+    }
+
+    private String canonicalQuery(Map<String, String> sortedQuery) {
+        return sortedQuery.entrySet().stream()
+                .map(e -> encode(e.getKey()) + "=" + encode(e.getValue()))
+                .collect(Collectors.joining("&"));
+    }
+
+    private String baseUri() {
+        URI uri = URI.create(endpoint);
+        return uri.getScheme() + "://" + host();
+    }
+
+    private String host() {
+        URI uri = URI.create(endpoint);
+        String host = pathStyle ? uri.getHost() : bucket + "." + uri.getHost();
+        return uri.getPort() != -1 ? host + ":" + uri.getPort() : host;
+    }
+
+    private static String encodePath(String key) {
+        StringBuilder sb = new StringBuilder();
+        for (String segment : key.split("/", -1)) {
+            if (!sb.isEmpty()) {
+                sb.append('/');
+            }
+            sb.append(encode(segment));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * RFC 3986 encoding as required by SigV4: only unreserved characters stay as they are
+     */
+    private static String encode(String value) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xFF);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~') {
+                sb.append(c);
+            } else {
+                sb.append('%').append(Character.toUpperCase(Character.forDigit((b >> 4) & 0xF, 16)))
+                        .append(Character.toUpperCase(Character.forDigit(b & 0xF, 16)));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String sha256Hex(String value) {
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 không khả dụng", e);
+        }
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 không khả dụng", e);
+        }
+    }
+}
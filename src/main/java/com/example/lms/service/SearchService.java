@@ -0,0 +1,148 @@
+package com.example.lms.service;
+
+import com.example.lms.dto.response.CourseSummaryView;
+import com.example.lms.dto.response.CursorPage;
+import com.example.lms.entity.Course;
+import com.example.lms.entity.User;
+import com.example.lms.repository.CourseRepository;
+import com.example.lms.repository.KeysetPagingRepository;
+import com.example.lms.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Ranked course and user search on the V14 indexes (unaccent + pg_trgm + tsvector).
+ * The index query only returns ids and scores; the rows are then loaded by id, so a
+ * page costs two index-backed statements however many rows match.
+ * <p>
+ * Results come either as numbered pages (OFFSET, with a total) or keyset-paginated
+ * by an opaque cursor over (score, id), which stays fast on deep pages.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class SearchService {
+
+    private static final UUID MIN_UUID = new UUID(0, 0);
+
+    private final CourseRepository courseRepository;
+    private final UserRepository userRepository;
+
+    public Page<CourseSummaryView> searchCourses(Course.CourseStatus status, String query, Pageable pageable) {
+        Page<Object[]> hits = courseRepository.searchByStatus(status.name(), query.trim(), pageable);
+        return new PageImpl<>(load(hits.getContent(), courseRepository::findSummariesByIdIn, CourseSummaryView::getId),
+                pageable, hits.getTotalElements());
+    }
+
+    public CursorPage<CourseSummaryView> searchCourses(Course.CourseStatus status, String query, String cursor, int limit) {
+        KeysetPagingRepository.checkLimit(limit);
+        Cursor after = Cursor.decode(cursor);
+        List<Object[]> hits = courseRepository.searchByStatusAfter(
+                status.name(), query.trim(), after.score(), after.id(), limit + 1);
+        return cursorPage(hits, limit, courseRepository::findSummariesByIdIn, CourseSummaryView::getId);
+    }
+
+    /**
+     * @param role null to search all roles
+     */
+    public Page<User> searchUsers(User.Role role, String query, Pageable pageable) {
+        Page<Object[]> hits = userRepository.search(role != null ? role.name() : "", query.trim(), pageable);
+        return new PageImpl<>(load(hits.getContent(), userRepository::findAllById, User::getId),
+                pageable, hits.getTotalElements());
+    }
+
+    public CursorPage<User> searchUsers(User.Role role, String query, String cursor, int limit) {
+        KeysetPagingRepository.checkLimit(limit);
+        Cursor after = Cursor.decode(cursor);
+        List<Object[]> hits = userRepository.searchAfter(
+                role != null ? role.name() : "", query.trim(), after.score(), after.id(), limit + 1);
+        return cursorPage(hits, limit, userRepository::findAllById, User::getId);
+    }
+
+    private <T> CursorPage<T> cursorPage(List<Object[]> hits, int limit,
+                                         Function<Collection<UUID>, ? extends Iterable<T>> loader,
+                                         Function<T, UUID> idOf) {
+        // One extra row was fetched to know whether another page follows
+        boolean hasNext = hits.size() > limit;
+        List<Object[]> page = hasNext ? hits.subList(0, limit) : hits;
+        String nextCursor = null;
+        if (hasNext) {
+            Object[] last = page.get(page.size() - 1);
+            nextCursor = new Cursor(((Number) last[1]).doubleValue(), (UUID) last[0]).encode();
+        }
+        return CursorPage.<T>builder()
+                .items(load(page, loader, idOf))
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build();
+    }
+
+    /**
+     * Load the rows of [id, score] hits, keeping the ranking order
+     */
+    private <T> List<T> load(List<Object[]> hits, Function<Collection<UUID>, ? extends Iterable<T>> loader,
+                             Function<T, UUID> idOf) {
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> ids = new ArrayList<>(hits.size());
+        for (Object[] hit : hits) {
+            ids.add((UUID) hit[0]);
+        }
+        Map<UUID, T> byId = new HashMap<>();
+        for (T row : loader.apply(ids)) {
+            byId.put(idOf.apply(row), row);
+        }
+        List<T> ordered = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            T row = byId.get(id);
+            if (row != null) {
+                ordered.add(row);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Position after the last returned hit. Scores are compared exactly, so the
+     * double is carried in its shortest round-tripping form.
+     */
+    private record Cursor(double score, UUID id) {
+
+        // Before the first hit: every score is below this
+        static final Cursor START = new Cursor(Double.MAX_VALUE, MIN_UUID);
+
+        static Cursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return START;
+            }
+            try {
+                String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = value.indexOf('|');
+                return new Cursor(Double.parseDouble(value.substring(0, separator)),
+                        UUID.fromString(value.substring(separator + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Cursor không hợp lệ");
+            }
+        }
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((score + "|" + id).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -1,14 +1,21 @@
 package com.example.lms.service;
 
 import com.example.lms.entity.Course;
+import com.example.lms.entity.Lesson;
 import com.example.lms.entity.Section;
 import com.example.lms.entity.User;
 import com.example.lms.repository.CourseRepository;
 import com.example.lms.repository.SectionRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -18,6 +25,12 @@ public class SectionService {
 
     private final SectionRepository sectionRepository;
     private final CourseRepository courseRepository;
+    private final CourseStatsService courseStatsService;
+    private final CourseOutlineService courseOutlineService;
+    private final EntityManager entityManager;
+
+    @Value("${app.jpa.bulk-chunk-size:500}")
+    private int chunkSize;
 
     public Section createSection(UUID courseId, User currentUser, com.example.lms.controller.SectionController.CreateSectionRequest request) {
         Course course = courseRepository.findById(courseId)
@@ -46,11 +59,103 @@ public class SectionService {
                 .course(course)
                 .build();
 
-        return sectionRepository.save(section);
+        Section saved = sectionRepository.save(section);
+        courseStatsService.adjustSections(courseId, 1);
+        courseOutlineService.invalidate(courseId);
+        return saved;
+    }
+
+    /**
+     * Fail before an import document is parsed when the course does not exist or the user
+     * is not its teacher, so nobody else can tie up a parser slot
+     */
+    @Transactional(readOnly = true)
+    public void checkCanImport(UUID courseId, User currentUser) {
+        findOwnCourse(courseId, currentUser);
+    }
+
+    /**
+     * Append the sections and lessons of an imported document outline to a course in one
+     * transaction. Order indexes come from a single max query instead of one per row, and the
+     * rows are inserted as JDBC batches, flushed every {@code bulk-chunk-size} rows.
+     * @return the created sections (detached), each with its lessons
+     */
+    public List<Section> importOutline(UUID courseId, User currentUser, List<DocumentParserService.OutlineSection> outline) {
+        Course course = findOwnCourse(courseId, currentUser);
+
+        if (outline.isEmpty()) {
+            throw new RuntimeException("Tài liệu không có nội dung để tạo chương và bài học");
+        }
+
+        // Same rule as createSection, checked for the whole import with one query
+        Set<String> titles = new HashSet<>(sectionRepository.findTitlesByCourseId(courseId));
+        for (DocumentParserService.OutlineSection outlineSection : outline) {
+            if (!titles.add(outlineSection.title())) {
+                throw new RuntimeException("Trong khóa học này đã có chương '" + outlineSection.title() + "'");
+            }
+        }
+
+        int orderIndex = sectionRepository.findMaxOrderIndexByCourse(course);
+        List<Section> created = new ArrayList<>(outline.size());
+        List<Section> chunk = new ArrayList<>();
+        int chunkRows = 0;
+        for (DocumentParserService.OutlineSection outlineSection : outline) {
+            Section section = Section.builder()
+                    .title(outlineSection.title())
+                    .orderIndex(++orderIndex)
+                    .course(courseRepository.getReferenceById(courseId))
+                    .build();
+            int lessonIndex = 0;
+            for (DocumentParserService.OutlineLesson outlineLesson : outlineSection.lessons()) {
+                section.getLessons().add(Lesson.builder()
+                        .title(outlineLesson.title())
+                        .content(outlineLesson.content())
+                        .orderIndex(++lessonIndex)
+                        .section(section)
+                        .build());
+            }
+            chunk.add(section);
+            chunkRows += 1 + section.getLessons().size();
+
+            if (chunkRows >= chunkSize) {
+                saveChunk(chunk, created);
+                chunkRows = 0;
+            }
+        }
+        saveChunk(chunk, created);
+
+        courseStatsService.adjustSections(courseId, created.size());
+        courseOutlineService.invalidate(courseId);
+        return created;
+    }
+
+    private Course findOwnCourse(UUID courseId, User currentUser) {
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy khóa học với ID: " + courseId));
+
+        // Check if user is the teacher of this course
+        if (!course.getTeacher().getId().equals(currentUser.getId())) {
+            throw new RuntimeException("Bạn không có quyền tạo section cho khóa học này");
+        }
+        return course;
+    }
+
+    /**
+     * Lessons are saved through the Section cascade; ordered inserts group them into batches
+     */
+    private void saveChunk(List<Section> chunk, List<Section> created) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        created.addAll(sectionRepository.saveAll(chunk));
+        chunk.clear();
+
+        entityManager.flush();
+        entityManager.clear();
     }
 
     public Section updateSection(UUID sectionId, User currentUser, com.example.lms.controller.SectionController.UpdateSectionRequest request) {
-        Section section = sectionRepository.findById(sectionId)
+        Section section = sectionRepository.findWithCourseAndLessonsById(sectionId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy section với ID: " + sectionId));
         
         // Check if user is the teacher of this course
@@ -77,6 +182,7 @@ public class SectionService {
             section.setOrderIndex(request.getOrderIndex());
         }
 
+        courseOutlineService.invalidate(section.getCourse().getId());
         return sectionRepository.save(section);
     }
 
@@ -92,5 +198,7 @@ public class SectionService {
         // Approval workflow removed: allow deleting regardless of status (optional: enforce ownership only)
 
         sectionRepository.delete(section);
+        courseStatsService.adjustSections(section.getCourse().getId(), -1);
+        courseOutlineService.invalidate(section.getCourse().getId());
     }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.example.lms.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Where uploaded bytes live. Keys are relative, slash-separated paths such as
+ * {@code blobs/ab/<sha256>}; every operation streams, nothing is buffered in memory.
+ * Selected with {@code app.storage.type} ({@code local} or {@code s3}).
+ */
+public interface StorageBackend {
+
+    void put(String key, InputStream content, long contentLength, String contentType) throws IOException;
+
+    /**
+     * Store a local file; implementations may move it instead of copying
+     */
+    default void putFile(String key, Path source, String contentType) throws IOException {
+        try (InputStream in = Files.newInputStream(source)) {
+            put(key, in, Files.size(source), contentType);
+        }
+    }
+
+    InputStream get(String key) throws IOException;
+
+    /**
+     * @param end inclusive, as in an HTTP Range header
+     */
+    InputStream getRange(String key, long start, long end) throws IOException;
+
+    /**
+     * @return size and modification time, or null if the key does not exist
+     */
+    ObjectInfo stat(String key) throws IOException;
+
+    default boolean exists(String key) throws IOException {
+        return stat(key) != null;
+    }
+
+    void move(String fromKey, String toKey) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    /**
+     * URL a client can PUT exactly {@code contentLength} bytes to, without going through the API
+     */
+    String presignPut(String key, long contentLength, Duration ttl);
+
+    String presignGet(String key, Duration ttl);
+
+    /**
+     * The file behind a key when it is on this node's disk (enables sendfile), empty otherwise
+     */
+    default Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    record ObjectInfo(long size, Instant lastModified) {}
+}
@@ -0,0 +1,77 @@
+package com.example.lms.service;
+
+import com.example.lms.entity.User;
+import com.example.lms.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the per-user token version so stateless tokens can be revoked without a DB hit.
+ * Only users whose version was ever bumped are kept in memory; everyone else is at version 0.
+ */
+@Service
+@RequiredArgsConstructor
+public class TokenVersionService {
+
+    private static final int DELETED = Integer.MAX_VALUE;
+
+    private final UserRepository userRepository;
+    private final JwtTokenCache tokenCache;
+
+    private final Map<UUID, Integer> versions = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRevokedVersions() {
+        for (Object[] row : userRepository.findRevokedTokenVersions()) {
+            versions.merge((UUID) row[0], (Integer) row[1], Math::max);
+        }
+    }
+
+    public boolean isCurrent(UUID userId, Integer tokenVersion) {
+        int current = versions.getOrDefault(userId, 0);
+        return tokenVersion != null && tokenVersion >= current;
+    }
+
+    /**
+     * Invalidate every token issued so far for this user (role change, account disabled).
+     * The caller is expected to persist the user in the same transaction; the in-memory
+     * version only moves once that transaction has committed.
+     */
+    public void revoke(User user) {
+        int next = (user.getTokenVersion() != null ? user.getTokenVersion() : 0) + 1;
+        user.setTokenVersion(next);
+        UUID userId = user.getId();
+        afterCommit(() -> versions.merge(userId, next, Math::max));
+        tokenCache.evictUser(userId);
+    }
+
+    public void forget(UUID userId) {
+        afterCommit(() -> versions.put(userId, DELETED));
+        tokenCache.evictUser(userId);
+    }
+
+    /**
+     * A rolled back change must not leave the map ahead of users.token_version,
+     * or every new token of the user would be rejected until restart
+     */
+    private void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.lms.service;
 
+import com.example.lms.dto.response.CursorPage;
 import com.example.lms.entity.User;
 import com.example.lms.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -21,6 +22,11 @@ public class UserService implements UserDetailsService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TokenVersionService tokenVersionService;
+    private final CourseStatsService courseStatsService;
+    private final SearchService searchService;
+    private final CourseAccessService courseAccessService;
+    private final JwtTokenCache tokenCache;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -71,14 +77,19 @@ public class UserService implements UserDetailsService {
         if (!userRepository.existsById(user.getId())) {
             throw new RuntimeException("Không tìm thấy user với ID: " + user.getId());
         }
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        tokenCache.evictUser(user.getId());
+        return saved;
     }
 
     public void deleteUser(UUID userId) {
         if (!userRepository.existsById(userId)) {
             throw new RuntimeException("Không tìm thấy user với ID: " + userId);
         }
+        courseStatsService.removeStudent(userId);
         userRepository.deleteById(userId);
+        tokenVersionService.forget(userId);
+        courseAccessService.evict(userId);
     }
 
     public boolean existsByUsername(String username) {
@@ -103,12 +114,14 @@ public class UserService implements UserDetailsService {
 
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        tokenCache.evictUser(userId);
     }
 
     public void enableUser(UUID userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy user"));
         user.setEnabled(true);
+        tokenVersionService.revoke(user);
         userRepository.save(user);
     }
 
@@ -116,18 +129,29 @@ public class UserService implements UserDetailsService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy user"));
         user.setEnabled(false);
+        tokenVersionService.revoke(user);
         userRepository.save(user);
     }
 
     // Additional methods for UserController
     public org.springframework.data.domain.Page<User> getAllUsers(org.springframework.data.domain.Pageable pageable, String search) {
         if (search != null && !search.trim().isEmpty()) {
-            return userRepository.findByUsernameContainingIgnoreCaseOrEmailContainingIgnoreCaseOrFullNameContainingIgnoreCase(
-                search.trim(), search.trim(), search.trim(), pageable);
+            return searchService.searchUsers(null, search, pageable);
         }
         return userRepository.findAll(pageable);
     }
 
+    /**
+     * Keyset-paginated variant of {@link #getAllUsers(org.springframework.data.domain.Pageable, String)}:
+     * newest first, or by relevance when searching
+     */
+    public CursorPage<User> getAllUsers(String cursor, int limit, boolean withTotal, String search) {
+        if (search != null && !search.trim().isEmpty()) {
+            return searchService.searchUsers(null, search, cursor, limit);
+        }
+        return userRepository.findKeysetPage(null, cursor, limit, withTotal);
+    }
+
     public User createUser(com.example.lms.controller.UserController.CreateUserRequest request) {
         if (userRepository.existsByUsername(request.getUsername())) {
             throw new RuntimeException("Username đã tồn tại: " + request.getUsername());
@@ -189,6 +213,10 @@ public class UserService implements UserDetailsService {
             user.setEnabled(request.getEnabled());
         }
 
+        if (request.getRole() != null || request.getEnabled() != null) {
+            tokenVersionService.revoke(user);
+        }
+
         return userRepository.save(user);
     }
 
@@ -199,10 +227,12 @@ public class UserService implements UserDetailsService {
     public void changePassword(User user, String newPassword) {
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        tokenCache.evictUser(user.getId());
     }
 
     public void updatePassword(User user, String newPassword) {
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        tokenCache.evictUser(user.getId());
     }
 }
\ No newline at end of file
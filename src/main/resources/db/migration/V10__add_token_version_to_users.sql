@@ -0,0 +1,7 @@
+-- Migration V10: Per-user token version used to revoke stateless access tokens
+
+ALTER TABLE users
+ADD COLUMN token_version INTEGER NOT NULL DEFAULT 0;
+
+-- Add comment for documentation
+COMMENT ON COLUMN users.token_version IS 'Bumped on role change / disable; tokens carrying an older version are rejected';
@@ -0,0 +1,28 @@
+-- Migration V11: Background bulk-enrollment jobs
+-- The roster upload returns a job id at once; progress is polled and survives restarts
+
+CREATE TABLE enrollment_jobs (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    course_id UUID NOT NULL REFERENCES courses(id) ON DELETE CASCADE,
+    requested_by UUID REFERENCES users(id) ON DELETE SET NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING', -- 'PENDING', 'RUNNING', 'COMPLETED', 'FAILED'
+    file_name VARCHAR(255) NOT NULL,
+    file_path VARCHAR(500) NOT NULL,
+    total_processed INTEGER NOT NULL DEFAULT 0,
+    success_count INTEGER NOT NULL DEFAULT 0,
+    error_count INTEGER NOT NULL DEFAULT 0,
+    result JSONB,
+    error_message TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP,
+    completed_at TIMESTAMP
+);
+
+-- Indexes for performance
+CREATE INDEX idx_enrollment_jobs_course_id ON enrollment_jobs(course_id);
+CREATE INDEX idx_enrollment_jobs_status ON enrollment_jobs(status);
+
+-- Add comment
+COMMENT ON TABLE enrollment_jobs IS 'Asynchronous bulk enrollment from Excel rosters, processed in chunks';
+COMMENT ON COLUMN enrollment_jobs.file_path IS 'Server-side copy of the roster, deleted once the job finishes';
+COMMENT ON COLUMN enrollment_jobs.result IS 'BulkEnrollmentResponse so far; total_processed is also the resume offset after a restart';
@@ -0,0 +1,30 @@
+-- Migration V12: Content-addressed storage for uploaded files
+-- Each distinct content is stored once under its SHA-256 and reference-counted;
+-- uploads get a logical handle (stored_files) that keeps the existing /api/v1/files URLs
+
+CREATE TABLE file_blobs (
+    sha256 VARCHAR(64) PRIMARY KEY,
+    file_size BIGINT NOT NULL,
+    ref_count INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE stored_files (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    path VARCHAR(500) NOT NULL UNIQUE,
+    blob_sha256 VARCHAR(64) NOT NULL REFERENCES file_blobs(sha256),
+    original_file_name VARCHAR(255) NOT NULL,
+    content_type VARCHAR(100),
+    file_size BIGINT NOT NULL,
+    uploaded_by UUID REFERENCES users(id) ON DELETE SET NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Indexes for performance
+CREATE INDEX idx_stored_files_blob_sha256 ON stored_files(blob_sha256);
+
+-- Add comment
+COMMENT ON TABLE file_blobs IS 'Deduplicated file contents, stored under <upload dir>/blobs/<2 hex>/<sha256>';
+COMMENT ON COLUMN file_blobs.ref_count IS 'Number of stored_files rows pointing at this blob; the blob is removed at 0';
+COMMENT ON TABLE stored_files IS 'Logical file handles: one row per upload, many rows may share a blob';
+COMMENT ON COLUMN stored_files.path IS 'Path under /api/v1/files, e.g. documents/2025/10/name_20251017_171959_708e2f74.pdf';
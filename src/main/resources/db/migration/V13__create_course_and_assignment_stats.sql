@@ -0,0 +1,34 @@
+-- Migration V13: Denormalized counters for courses and assignments
+-- Kept up to date in the same transaction as enroll, section/assignment create/delete and submit,
+-- and re-derived from the source tables by a periodic reconciliation job
+
+CREATE TABLE course_stats (
+    course_id UUID PRIMARY KEY REFERENCES courses(id) ON DELETE CASCADE,
+    enrolled_count INTEGER NOT NULL DEFAULT 0,
+    sections_count INTEGER NOT NULL DEFAULT 0,
+    assignments_count INTEGER NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE assignment_stats (
+    assignment_id UUID PRIMARY KEY REFERENCES assignments(id) ON DELETE CASCADE,
+    submissions_count INTEGER NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Backfill from existing data
+INSERT INTO course_stats (course_id, enrolled_count, sections_count, assignments_count)
+SELECT c.id,
+       (SELECT COUNT(*) FROM course_enrollments e WHERE e.course_id = c.id),
+       (SELECT COUNT(*) FROM sections s WHERE s.course_id = c.id),
+       (SELECT COUNT(*) FROM assignments a WHERE a.course_id = c.id)
+FROM courses c;
+
+INSERT INTO assignment_stats (assignment_id, submissions_count)
+SELECT a.id, (SELECT COUNT(*) FROM assignment_submissions s WHERE s.assignment_id = a.id)
+FROM assignments a;
+
+-- Add comment
+COMMENT ON TABLE course_stats IS 'Per-course counters read by course listings instead of counting child rows';
+COMMENT ON TABLE assignment_stats IS 'Per-assignment counters read by assignment listings instead of counting submissions';
+COMMENT ON COLUMN assignment_stats.submissions_count IS 'Rows in assignment_submissions for this assignment';
@@ -0,0 +1,34 @@
+-- Migration V14: Indexed search for courses and users
+-- Accent-insensitive matching (Vietnamese "Lập trình" matches "lap trinh") through unaccent,
+-- substring/typo matching through pg_trgm and ranked word matching through a tsvector column
+CREATE EXTENSION IF NOT EXISTS "unaccent";
+CREATE EXTENSION IF NOT EXISTS "pg_trgm";
+
+-- unaccent() is only STABLE (it depends on the search_path); pinning the dictionary makes it
+-- safe to use in index expressions and generated columns
+CREATE OR REPLACE FUNCTION immutable_unaccent(text) RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT
+    AS $$ SELECT public.unaccent('public.unaccent'::regdictionary, $1) $$;
+
+-- The one normalization used by both the indexes and the queries
+CREATE OR REPLACE FUNCTION search_normalize(text) RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE
+    AS $$ SELECT lower(immutable_unaccent(coalesce($1, ''))) $$;
+
+-- 'simple' configuration: no stemming or stop words, there is no Vietnamese dictionary
+ALTER TABLE courses ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', search_normalize(title)), 'A') ||
+    setweight(to_tsvector('simple', search_normalize(description)), 'B')
+) STORED;
+
+-- Indexes for performance
+CREATE INDEX idx_courses_search_vector ON courses USING GIN (search_vector);
+CREATE INDEX idx_courses_title_trgm ON courses USING GIN (search_normalize(title) gin_trgm_ops);
+CREATE INDEX idx_courses_code_trgm ON courses USING GIN (lower(code) gin_trgm_ops);
+CREATE INDEX idx_users_full_name_trgm ON users USING GIN (search_normalize(full_name) gin_trgm_ops);
+CREATE INDEX idx_users_email_trgm ON users USING GIN (lower(email) gin_trgm_ops);
+CREATE INDEX idx_users_username_trgm ON users USING GIN (lower(username) gin_trgm_ops);
+
+-- Add comment
+COMMENT ON FUNCTION search_normalize(text) IS 'Lower-cased, accent-free text; queries must use the same expression to hit the trigram indexes';
+COMMENT ON COLUMN courses.search_vector IS 'Title (weight A) and description (weight B), normalized by search_normalize';
@@ -0,0 +1,15 @@
+-- Migration V15: Indexes for keyset (cursor) pagination
+-- Cursor pages are read newest first by (created_at, id); each index matches one list's
+-- filter + order so a page is a short index range scan however deep it is
+
+-- Indexes for performance
+CREATE INDEX idx_courses_created_at_id ON courses(created_at DESC, id DESC);
+CREATE INDEX idx_courses_status_created_at_id ON courses(status, created_at DESC, id DESC);
+CREATE INDEX idx_users_created_at_id ON users(created_at DESC, id DESC);
+CREATE INDEX idx_users_role_created_at_id ON users(role, created_at DESC, id DESC);
+CREATE INDEX idx_assignment_submissions_assignment_created_at_id
+    ON assignment_submissions(assignment_id, created_at DESC, id DESC);
+
+-- Add comment
+COMMENT ON INDEX idx_courses_status_created_at_id IS 'Cursor pages of the course catalog (status = APPROVED) and admin course list';
+COMMENT ON INDEX idx_assignment_submissions_assignment_created_at_id IS 'Cursor pages of the submissions of one assignment';
@@ -0,0 +1,46 @@
+-- Migration V16: Index set matched to the repository queries
+-- Each new index serves a query's filter and order together; single-column indexes that only
+-- repeat a UNIQUE constraint or the leading column of a composite index, or that no query uses
+-- on its own, are dropped: they cost a write on every insert/update and never give the planner
+-- a better path
+
+-- Assignments of a course, oldest first (AssignmentRepository.findSummariesByCourseId)
+CREATE INDEX idx_assignments_course_created_at_id ON assignments(course_id, created_at, id);
+
+-- Courses a student is enrolled in (access checks, "my enrolled courses"): index-only scan
+CREATE INDEX idx_course_enrollments_student_course ON course_enrollments(student_id, course_id);
+
+-- Attachments of a lesson in display order, optionally of one file type
+CREATE INDEX idx_lesson_attachments_lesson_order ON lesson_attachments(lesson_id, display_order);
+CREATE INDEX idx_lesson_attachments_lesson_type_order ON lesson_attachments(lesson_id, file_type, display_order);
+
+-- Partial index: only the rows the query can match
+-- Revoked-token versions loaded by TokenVersionService; almost every user has version 0.
+-- Catalog pages (status = 'APPROVED') get no partial index of their own: V15's
+-- idx_courses_status_created_at_id already serves them, a second one would only add writes
+CREATE INDEX idx_users_revoked_token_version ON users(id, token_version) WHERE token_version > 0;
+
+-- Duplicates of UNIQUE constraints
+DROP INDEX IF EXISTS idx_users_email;
+DROP INDEX IF EXISTS idx_users_username;
+DROP INDEX IF EXISTS idx_courses_code;
+
+-- Leading column of a primary key, UNIQUE constraint or composite index
+DROP INDEX IF EXISTS idx_users_role;                          -- idx_users_role_created_at_id
+DROP INDEX IF EXISTS idx_courses_status;                      -- idx_courses_status_created_at_id
+DROP INDEX IF EXISTS idx_course_enrollments_course_id;        -- PRIMARY KEY (course_id, student_id)
+DROP INDEX IF EXISTS idx_course_enrollments_student_id;       -- idx_course_enrollments_student_course
+DROP INDEX IF EXISTS idx_sections_course_id;                  -- idx_sections_order
+DROP INDEX IF EXISTS idx_lessons_section_id;                  -- idx_lessons_order
+DROP INDEX IF EXISTS idx_assignments_course_id;               -- idx_assignments_course_created_at_id
+DROP INDEX IF EXISTS idx_lesson_attachments_lesson_id;        -- idx_lesson_attachments_lesson_order
+DROP INDEX IF EXISTS idx_lesson_assignments_lesson;           -- UNIQUE (lesson_id, student_id)
+DROP INDEX IF EXISTS idx_assignment_submissions_assignment_id; -- unique_assignment_student
+DROP INDEX IF EXISTS idx_submissions_assignment_id;           -- UNIQUE (assignment_id, student_id)
+
+-- Never used on its own: file_type is only filtered together with lesson_id,
+-- which idx_lesson_attachments_lesson_type_order serves
+DROP INDEX IF EXISTS idx_lesson_attachments_file_type;
+
+-- Add comment
+COMMENT ON INDEX idx_users_revoked_token_version IS 'Users whose tokens were revoked (token_version > 0)';
@@ -0,0 +1,26 @@
+-- Migration V17: Background document text extraction
+-- Word uploads are parsed on a bounded worker pool; the extracted text is kept on the job
+-- row and polled by the client
+
+CREATE TABLE document_extraction_jobs (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    requested_by UUID REFERENCES users(id) ON DELETE SET NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING', -- 'PENDING', 'RUNNING', 'COMPLETED', 'FAILED'
+    file_name VARCHAR(255) NOT NULL,
+    file_path VARCHAR(500) NOT NULL,
+    content TEXT,
+    error_message TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP,
+    completed_at TIMESTAMP
+);
+
+-- Indexes for performance
+CREATE INDEX idx_document_extraction_jobs_requested_by ON document_extraction_jobs(requested_by);
+CREATE INDEX idx_document_extraction_jobs_unfinished ON document_extraction_jobs(created_at)
+    WHERE status IN ('PENDING', 'RUNNING');
+
+-- Add comment
+COMMENT ON TABLE document_extraction_jobs IS 'Asynchronous .doc/.docx text extraction, parsed on a bounded worker pool';
+COMMENT ON COLUMN document_extraction_jobs.file_path IS 'Server-side copy of the upload, deleted once the job finishes';
+COMMENT ON COLUMN document_extraction_jobs.content IS 'Extracted text, set when the job completes';
@@ -0,0 +1,118 @@
+package com.example.lms.controller;
+
+import com.example.lms.entity.Assignment;
+import com.example.lms.entity.Course;
+import com.example.lms.entity.Lesson;
+import com.example.lms.entity.Section;
+import com.example.lms.entity.User;
+import com.example.lms.support.PostgresIntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SQL statements per request, read from Hibernate statistics, for the endpoints that render
+ * associations. Every fixture holds several rows of each kind, so a per-row lookup (N+1)
+ * sneaking into a service or converter pushes the count over the budget.
+ * Caches start cold: each test reads rows nobody has read before.
+ */
+class QueryBudgetTest extends PostgresIntegrationTest {
+
+    private static final int ROWS = 5;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void readStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        assertThat(statistics.isStatisticsEnabled()).as("hibernate.generate_statistics").isTrue();
+    }
+
+    @Test
+    void courseDetail() throws Exception {
+        Course course = data.course(data.user(User.Role.TEACHER), Course.CourseStatus.APPROVED);
+
+        assertBudget(get("/api/v1/courses/{id}", course.getId()), 2);
+    }
+
+    @Test
+    void courseContent() throws Exception {
+        User teacher = data.user(User.Role.TEACHER);
+        Course course = data.course(teacher, Course.CourseStatus.APPROVED);
+        for (int s = 0; s < ROWS; s++) {
+            Section section = data.section(course, s);
+            for (int l = 0; l < ROWS; l++) {
+                data.attachment(data.lesson(section, l), teacher, 0);
+            }
+        }
+
+        assertBudget(get("/api/v1/courses/{id}/content", course.getId()).with(user(teacher)), 2);
+    }
+
+    @Test
+    void lessonDetail() throws Exception {
+        User teacher = data.user(User.Role.TEACHER);
+        User student = data.user(User.Role.STUDENT);
+        Course course = data.course(teacher, Course.CourseStatus.APPROVED);
+        data.enroll(course, List.of(student));
+        Lesson lesson = data.lesson(data.section(course, 0), 0);
+        for (int a = 0; a < ROWS; a++) {
+            data.attachment(lesson, teacher, a);
+        }
+
+        assertBudget(get("/api/v1/lessons/{id}", lesson.getId()).with(user(student)), 2);
+    }
+
+    @Test
+    void submissionPages() throws Exception {
+        User teacher = data.user(User.Role.TEACHER);
+        Assignment assignment = data.assignment(data.course(teacher, Course.CourseStatus.APPROVED));
+        for (int i = 0; i < ROWS; i++) {
+            data.submission(assignment, data.user(User.Role.STUDENT));
+        }
+
+        assertBudget(get("/api/v1/assignments/{id}/submissions", assignment.getId()).with(user(teacher)), 3);
+        assertBudget(get("/api/v1/assignments/{id}/submissions", assignment.getId())
+                .param("cursor", "").param("withTotal", "true").with(user(teacher)), 3);
+    }
+
+    @Test
+    void adminCourseLists() throws Exception {
+        for (int i = 0; i < ROWS; i++) {
+            User teacher = data.user(User.Role.TEACHER);
+            data.course(teacher, Course.CourseStatus.PENDING);
+            data.course(teacher, Course.CourseStatus.APPROVED);
+        }
+        User admin = data.user(User.Role.ADMIN);
+
+        assertBudget(get("/api/v1/admin/courses/pending").with(user(admin)), 3);
+        assertBudget(get("/api/v1/admin/courses/all").with(user(admin)), 3);
+        assertBudget(get("/api/v1/admin/courses/all").param("cursor", "").with(user(admin)), 2);
+        assertBudget(get("/api/v1/admin/courses/all").param("status", "approved").param("search", "Course")
+                .with(user(admin)), 3);
+    }
+
+    private void assertBudget(MockHttpServletRequestBuilder request, int budget) throws Exception {
+        statistics.clear();
+        mockMvc.perform(request).andExpect(status().isOk());
+        long statements = statistics.getPrepareStatementCount();
+        assertThat(statements)
+                .as("SQL statements run by the request, queries: %s", Arrays.toString(statistics.getQueries()))
+                .isLessThanOrEqualTo(budget);
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.lms.repository;
+
+import com.example.lms.entity.Course;
+import com.example.lms.entity.User;
+import com.example.lms.support.JdbcRecorder;
+import com.example.lms.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The SQL each repository query actually sends is captured and explained, and its plan must
+ * read the table through the index meant for it (see V15/V16). Plans are generic (built
+ * without parameter values) and sequential and bitmap scans are disabled, so the test data in
+ * the tables does not matter: a query the index cannot serve still falls back to a Seq Scan.
+ */
+class QueryPlanTest extends PostgresIntegrationTest {
+
+    private static final Pattern PARAMETER = Pattern.compile("\\?");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LessonAttachmentRepository lessonAttachmentRepository;
+
+    @Autowired
+    private AssignmentRepository assignmentRepository;
+
+    @Test
+    void submissionsOfTeachersAssignment() throws Exception {
+        String plan = explain(() -> submissionRepository.findByAssignmentIdAndTeacherId(UUID.randomUUID(), UUID.randomUUID()));
+
+        assertThat(plan).containsPattern(indexScan("submissions_assignment_id_student_id_key", "submissions"));
+    }
+
+    @Test
+    void coursesByStatusNewestFirst() throws Exception {
+        String plan = explain(() -> courseRepository.findByStatus(Course.CourseStatus.APPROVED,
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "createdAt", "id"))));
+
+        assertThat(plan).containsPattern(indexScan("idx_courses_status_created_at_id", "courses"));
+    }
+
+    @Test
+    void courseCursorPageByStatus() throws Exception {
+        String plan = explain(() -> courseRepository.findKeysetPage(
+                (root, query, cb) -> cb.equal(root.get("status"), Course.CourseStatus.APPROVED), null, 10, false));
+
+        assertThat(plan).containsPattern(indexScan("idx_courses_status_created_at_id", "courses"));
+    }
+
+    @Test
+    void userByEmailAndRole() throws Exception {
+        // With a handful of users both indexes look alike; with realistic numbers the role index
+        // matches a share of the table and the unique email index a single row
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("""
+                    INSERT INTO users (id, username, email, password, full_name, role, enabled, token_version, created_at)
+                    SELECT gen_random_uuid(), 'plan-' || n, 'plan-' || n || '@test.local', 'x', 'Plan ' || n,
+                           (ARRAY['STUDENT', 'TEACHER', 'ADMIN'])[n % 3 + 1], true, 0, now()
+                    FROM generate_series(1, 3000) n
+                    ON CONFLICT DO NOTHING""");
+            jdbcTemplate.execute("ANALYZE users");
+        });
+        String plan = explain(() -> userRepository.findByEmailAndRole("someone@test.local", User.Role.STUDENT));
+
+        assertThat(plan).containsPattern(indexScan("users_email_key", "users"));
+    }
+
+    @Test
+    void revokedTokenVersions() throws Exception {
+        String plan = explain(() -> userRepository.findRevokedTokenVersions());
+
+        assertThat(plan).containsPattern(indexScan("idx_users_revoked_token_version", "users"));
+    }
+
+    @Test
+    void enrolledCourseIds() throws Exception {
+        String plan = explain(() -> userRepository.findEnrolledCourseIds(UUID.randomUUID()));
+
+        assertThat(plan).containsPattern(indexScan("idx_course_enrollments_student_course", "course_enrollments"));
+    }
+
+    @Test
+    void lessonAttachmentsInOrder() throws Exception {
+        String plan = explain(() -> lessonAttachmentRepository.findByLessonIdOrderByDisplayOrderAsc(UUID.randomUUID()));
+
+        assertThat(plan).containsPattern(indexScan("idx_lesson_attachments_lesson_order", "lesson_attachments"));
+    }
+
+    @Test
+    void lessonAttachmentsOfTypeInOrder() throws Exception {
+        String plan = explain(() -> lessonAttachmentRepository.findByLessonIdAndFileTypeOrderByDisplayOrderAsc(
+                UUID.randomUUID(), "document"));
+
+        assertThat(plan).containsPattern(indexScan("idx_lesson_attachments_lesson_type_order", "lesson_attachments"));
+    }
+
+    @Test
+    void assignmentsOfCourse() throws Exception {
+        String plan = explain(() -> assignmentRepository.findSummariesByCourseId(UUID.randomUUID(), PageRequest.of(0, 10)));
+
+        assertThat(plan).containsPattern(indexScan("idx_assignments_course_created_at_id", "assignments"));
+    }
+
+    private static Pattern indexScan(String index, String table) {
+        return Pattern.compile("Index (Only )?Scan (Backward )?using " + index + " on " + table + "\\b");
+    }
+
+    /**
+     * Plan of the first query {@code repositoryCall} sends (the page query, before any count)
+     */
+    private String explain(Callable<?> repositoryCall) throws Exception {
+        List<JdbcRecorder.Execution> executions = jdbc.record(() -> transactionTemplate.execute(status -> {
+            try {
+                return repositoryCall.call();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        String sql = executions.stream()
+                .filter(execution -> execution.kind() == JdbcRecorder.Kind.QUERY)
+                .map(JdbcRecorder.Execution::sql)
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("The repository call ran no query"));
+
+        // The JDBC ? placeholders become the $n parameters of a prepared statement, whose
+        // forced generic plan does not depend on the (null) values it is executed with
+        Matcher matcher = PARAMETER.matcher(sql);
+        StringBuilder prepared = new StringBuilder("PREPARE plan_under_test AS ");
+        int parameters = 0;
+        while (matcher.find()) {
+            matcher.appendReplacement(prepared, "\\$" + ++parameters);
+        }
+        matcher.appendTail(prepared);
+        String execute = "EXECUTE plan_under_test"
+                + (parameters > 0 ? "(" + String.join(", ", Collections.nCopies(parameters, "NULL")) + ")" : "");
+
+        String plan = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            jdbcTemplate.execute("SET LOCAL enable_bitmapscan = off");
+            jdbcTemplate.execute(prepared.toString());
+            try {
+                return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + execute, String.class));
+            } finally {
+                jdbcTemplate.execute("DEALLOCATE plan_under_test");
+            }
+        });
+        return sql + "\n" + plan;
+    }
+}
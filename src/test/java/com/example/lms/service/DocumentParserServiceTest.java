@@ -0,0 +1,78 @@
+package com.example.lms.service;
+
+import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The streamed .docx text against what XWPFWordExtractor (the former path) gives for the same
+ * fixture, normalized the same way. The fixtures in {@code documents/} hold the markup the
+ * stream handles itself: tables (nested too), tracked changes, fields and drawings.
+ */
+class DocumentParserServiceTest {
+
+    private static final int MAX_TEXT_LENGTH = 5_000_000;
+
+    private DocumentParserService documentParserService;
+
+    @BeforeEach
+    void setUp() {
+        documentParserService = new DocumentParserService();
+        ReflectionTestUtils.setField(documentParserService, "maxTextLength", MAX_TEXT_LENGTH);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"tables.docx", "fields.docx"})
+    void streamsTheSameTextAsXwpf(String fixture) throws IOException {
+        assertThat(streamed(fixture)).isEqualTo(xwpf(fixture));
+    }
+
+    @Test
+    void tracksChangesLikeXwpfWithoutTheDeletedText() throws IOException {
+        // XWPF reads w:delText like w:t, so deleted text came back in the former output
+        String expected = xwpf("tracked-changes.docx")
+                .replace("đã sửa cũ ", "đã sửa ")
+                .replace("Đoạn đã xóa hẳn.", "");
+
+        assertThat(streamed("tracked-changes.docx")).isEqualTo(expected);
+    }
+
+    @Test
+    void drawingsLikeXwpfPlusTextBoxes() throws IOException {
+        // XWPF drops text boxes; the stream reads them once, from mc:Choice
+        String expected = xwpf("drawings.docx")
+                .replace("Trước hình.\n", "Trước hình.\nChú thích trong hộp\n");
+
+        assertThat(streamed("drawings.docx")).isEqualTo(expected);
+    }
+
+    @Test
+    void fixturesExerciseTheMarkup() throws IOException {
+        assertThat(xwpf("tables.docx")).contains("Nguyễn Văn A\t(lớp 1)\t8.5\t9", "Lồng 1Lồng 2\tLồng 2bLồng 3");
+        assertThat(xwpf("tracked-changes.docx")).contains("Đoạn đã xóa hẳn.", "Đoạn mới chèn.");
+        assertThat(xwpf("fields.docx")).contains("Trang 3 của 12").doesNotContain("PAGE", "HYPERLINK");
+        assertThat(xwpf("drawings.docx")).doesNotContain("Chú thích trong hộp");
+    }
+
+    private String streamed(String fixture) throws IOException {
+        return documentParserService.extractText(new ClassPathResource("documents/" + fixture), fixture, Long.MAX_VALUE);
+    }
+
+    private static String xwpf(String fixture) throws IOException {
+        try (InputStream in = new ClassPathResource("documents/" + fixture).getInputStream();
+             XWPFDocument document = new XWPFDocument(in);
+             XWPFWordExtractor extractor = new XWPFWordExtractor(document)) {
+            return new DocumentParserService.NormalizedTextBuilder(MAX_TEXT_LENGTH).append(extractor.getText()).toString();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.lms.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * {@link ExcelProcessingService#normalizeEmail} against the rule it replaced: the former
+ * {@code EMAIL_PATTERN} matched on the trimmed value, then lowercase and trim.
+ */
+class ExcelProcessingServiceTest {
+
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$");
+
+    /**
+     * The former isValidEmail + {@code email.toLowerCase().trim()}, with the root locale
+     * so the result does not depend on the machine running the test
+     */
+    private static String formerRule(String value) {
+        if (value == null || value.trim().isEmpty() || !EMAIL_PATTERN.matcher(value.trim()).matches()) {
+            return null;
+        }
+        return value.toLowerCase(Locale.ROOT).trim();
+    }
+
+    static Stream<Arguments> cells() {
+        return Stream.of(
+                arguments("student@example.com", "student@example.com"),
+                arguments("Student.Name+tag@Example.COM", "student.name+tag@example.com"),
+                arguments("a_b%c-d@sub-domain.example.org", "a_b%c-d@sub-domain.example.org"),
+                arguments("  student@example.com\t", "student@example.com"),
+                arguments("\n student@example.com \r\n", "student@example.com"),
+                arguments("x@a..cc", "x@a..cc"),
+                arguments("x@-.cc", "x@-.cc"),
+                arguments("x@a.b1.cc", "x@a.b1.cc"),
+                // two @ signs
+                arguments("a@b@example.com", null),
+                arguments("a@@example.com", null),
+                // trailing dot, one-letter TLD, digit in the TLD
+                arguments("student@example.com.", null),
+                arguments("student@example.c", null),
+                arguments("student@example.c0m", null),
+                arguments("student@example.123", null),
+                // empty local or domain part
+                arguments("@example.com", null),
+                arguments("student@", null),
+                arguments("student@.com", null),
+                arguments("student@com", null),
+                // non-ASCII
+                arguments("élève@example.com", null),
+                arguments("student@exämple.com", null),
+                arguments("student@example.cöm", null),
+                arguments("student@example.com ", null),
+                // not emails at all
+                arguments("", null),
+                arguments("   ", null),
+                arguments("Nguyễn Văn A", null),
+                arguments("12345", null),
+                arguments("student @example.com", null),
+                arguments("student@exa mple.com", null),
+                arguments(null, null)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("cells")
+    void normalizesLikeTheFormerRegex(String cell, String expected) {
+        assertThat(formerRule(cell)).as("former rule").isEqualTo(expected);
+        assertThat(ExcelProcessingService.normalizeEmail(cell)).isEqualTo(expected);
+    }
+
+    @Test
+    void agreesWithTheFormerRegexOnRandomCells() {
+        // Short strings over the characters the rule cares about, plus some it rejects
+        String alphabet = "aZ09._%+-@@..  \té!";
+        Random random = new Random(42);
+        for (int n = 0; n < 200_000; n++) {
+            char[] chars = new char[1 + random.nextInt(12)];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+            }
+            String cell = new String(chars);
+            assertThat(ExcelProcessingService.normalizeEmail(cell)).as("[%s]", cell).isEqualTo(formerRule(cell));
+        }
+    }
+}
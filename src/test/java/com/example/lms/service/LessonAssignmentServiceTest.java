@@ -0,0 +1,70 @@
+package com.example.lms.service;
+
+import com.example.lms.entity.Course;
+import com.example.lms.entity.Lesson;
+import com.example.lms.entity.User;
+import com.example.lms.repository.LessonAssignmentRepository;
+import com.example.lms.support.JdbcRecorder.Execution;
+import com.example.lms.support.JdbcRecorder.Kind;
+import com.example.lms.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk assignment must reach the database as JDBC batches: with {@code jdbc.batch_size} 50,
+ * 1,000 new assignments are 20 {@code executeBatch} calls and not 1,000 single INSERTs.
+ */
+class LessonAssignmentServiceTest extends PostgresIntegrationTest {
+
+    private static final int STUDENTS = 1_000;
+
+    @Autowired
+    private LessonAssignmentService lessonAssignmentService;
+
+    @Autowired
+    private LessonAssignmentRepository lessonAssignmentRepository;
+
+    @Test
+    void assignsStudentsInJdbcBatches() throws Exception {
+        User teacher = data.user(User.Role.TEACHER);
+        Lesson lesson = data.lesson(data.section(data.course(teacher, Course.CourseStatus.APPROVED), 1), 1);
+        List<UUID> students = data.students(STUDENTS);
+
+        List<Execution> executions = jdbc.record(
+                () -> lessonAssignmentService.assignLessonToStudents(lesson.getId(), students, teacher));
+
+        List<Execution> inserts = executions.stream()
+                .filter(execution -> execution.sql().startsWith("insert into lesson_assignments"))
+                .toList();
+        assertThat(inserts).as("%s", inserts)
+                .hasSize(STUDENTS / 50)
+                .allSatisfy(insert -> {
+                    assertThat(insert.kind()).isEqualTo(Kind.BATCH);
+                    assertThat(insert.rows()).isEqualTo(50);
+                });
+        assertThat(lessonAssignmentRepository.findByLessonId(lesson.getId())).hasSize(STUDENTS);
+    }
+
+    @Test
+    void skipsStudentsAlreadyAssigned() throws Exception {
+        User teacher = data.user(User.Role.TEACHER);
+        Lesson lesson = data.lesson(data.section(data.course(teacher, Course.CourseStatus.APPROVED), 1), 1);
+        List<UUID> students = data.students(STUDENTS);
+        lessonAssignmentService.assignLessonToStudents(lesson.getId(), students.subList(0, 400), teacher);
+
+        List<Execution> executions = jdbc.record(
+                () -> assertThat(lessonAssignmentService.assignLessonToStudents(lesson.getId(), students, teacher))
+                        .isEqualTo(STUDENTS - 400));
+
+        assertThat(executions)
+                .filteredOn(execution -> execution.sql().startsWith("insert into lesson_assignments"))
+                .extracting(Execution::rows)
+                .containsOnly(50)
+                .hasSize((STUDENTS - 400) / 50);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.lms.support;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the annotated test class only when the test database of {@code application-test.yml}
+ * accepts connections, so that {@code mvn test} still passes on machines without one.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(PostgresCondition.class)
+public @interface EnabledIfPostgres {
+}
@@ -0,0 +1,105 @@
+package com.example.lms.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Wraps the application's DataSource to see the JDBC calls made by a piece of code: the
+ * SQL each statement ran and whether it went out as a single execution or as a batch.
+ * Only calls made by the recording thread are kept.
+ */
+public class JdbcRecorder implements BeanPostProcessor {
+
+    private final ThreadLocal<List<Execution>> current = new ThreadLocal<>();
+
+    /**
+     * Run {@code action} on this thread and return the JDBC executions it caused
+     */
+    public List<Execution> record(Callable<?> action) throws Exception {
+        List<Execution> executions = new ArrayList<>();
+        current.set(executions);
+        try {
+            action.call();
+        } finally {
+            current.remove();
+        }
+        return executions;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return proxy(dataSource, (method, args) -> {
+                Object result = invoke(dataSource, method, args);
+                return result instanceof Connection connection ? wrap(connection) : result;
+            });
+        }
+        return bean;
+    }
+
+    private Connection wrap(Connection connection) {
+        return proxy(connection, (method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                return wrap(statement, (String) args[0]);
+            }
+            return result;
+        });
+    }
+
+    private PreparedStatement wrap(PreparedStatement statement, String sql) {
+        int[] batched = new int[1];
+        return proxy(statement, (method, args) -> {
+            List<Execution> executions = current.get();
+            if (executions != null && (args == null || args.length == 0)) {
+                switch (method.getName()) {
+                    case "addBatch" -> batched[0]++;
+                    case "executeBatch" -> {
+                        executions.add(new Execution(sql, Kind.BATCH, batched[0]));
+                        batched[0] = 0;
+                    }
+                    case "executeQuery" -> executions.add(new Execution(sql, Kind.QUERY, 1));
+                    case "executeUpdate", "execute" -> executions.add(new Execution(sql, Kind.UPDATE, 1));
+                    default -> {
+                    }
+                }
+            }
+            return invoke(statement, method, args);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(T target, Handler handler) {
+        return (T) Proxy.newProxyInstance(JdbcRecorder.class.getClassLoader(),
+                ClassUtils.getAllInterfaces(target), (proxy, method, args) -> handler.handle(method, args));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private interface Handler {
+        Object handle(Method method, Object[] args) throws Throwable;
+    }
+
+    public enum Kind { QUERY, UPDATE, BATCH }
+
+    /**
+     * @param rows statements sent in the batch, 1 for single executions
+     */
+    public record Execution(String sql, Kind kind, int rows) {}
+}
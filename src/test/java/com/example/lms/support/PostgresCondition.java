@@ -0,0 +1,45 @@
+package com.example.lms.support;
+
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * Tries the test database once per run, with the same settings and defaults as
+ * {@code application-test.yml}. Create it next to the docker compose database with
+ * {@code docker compose exec db createdb -U lms lms_test}.
+ */
+public class PostgresCondition implements ExecutionCondition {
+
+    public static final String URL = env("LMS_TEST_DB_URL", "jdbc:postgresql://localhost:5432/lms_test");
+    public static final String USER = env("LMS_TEST_DB_USER", "lms");
+    public static final String PASSWORD = env("LMS_TEST_DB_PASSWORD", "lms");
+
+    private static volatile ConditionEvaluationResult result;
+
+    @Override
+    public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+        if (result == null) {
+            result = probe();
+        }
+        return result;
+    }
+
+    private static ConditionEvaluationResult probe() {
+        DriverManager.setLoginTimeout(3);
+        try (Connection connection = DriverManager.getConnection(URL, USER, PASSWORD)) {
+            return ConditionEvaluationResult.enabled("PostgreSQL reachable at " + URL);
+        } catch (SQLException e) {
+            return ConditionEvaluationResult.disabled("No PostgreSQL at " + URL + ": " + e.getMessage());
+        }
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isBlank() ? value : defaultValue;
+    }
+}
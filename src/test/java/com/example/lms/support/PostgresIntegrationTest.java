@@ -0,0 +1,30 @@
+package com.example.lms.support;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Base of the tests that run the whole application against the PostgreSQL test database.
+ * All of them share one application context; each creates the rows it needs through
+ * {@link TestData} and leaves them behind. {@link JdbcRecorder} sees the JDBC calls they cause.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@EnabledIfPostgres
+@Import({TestData.class, JdbcRecorder.class})
+public abstract class PostgresIntegrationTest {
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected TestData data;
+
+    @Autowired
+    protected JdbcRecorder jdbc;
+}
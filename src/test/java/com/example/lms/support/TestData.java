@@ -0,0 +1,137 @@
+package com.example.lms.support;
+
+import com.example.lms.entity.Assignment;
+import com.example.lms.entity.AssignmentSubmission;
+import com.example.lms.entity.Course;
+import com.example.lms.entity.Lesson;
+import com.example.lms.entity.LessonAttachment;
+import com.example.lms.entity.Section;
+import com.example.lms.entity.User;
+import com.example.lms.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Rows for integration tests, each call committed in its own transaction. Unique columns
+ * get a random suffix, so tests never clash with each other or with earlier runs.
+ */
+@RequiredArgsConstructor
+@Transactional
+public class TestData {
+
+    private final EntityManager entityManager;
+    private final UserRepository userRepository;
+
+    public User user(User.Role role) {
+        String name = role.name().toLowerCase() + "-" + suffix();
+        return userRepository.save(User.builder()
+                .username(name)
+                .email(name + "@test.local")
+                .password("{noop}secret")
+                .fullName("Test " + name)
+                .role(role)
+                .build());
+    }
+
+    /**
+     * {@code count} students in one INSERT, for tests that need realistic numbers
+     */
+    @SuppressWarnings("unchecked")
+    public List<UUID> students(int count) {
+        return entityManager.createNativeQuery("""
+                        INSERT INTO users (id, username, email, password, full_name, role, enabled, token_version, created_at)
+                        SELECT gen_random_uuid(), :prefix || n, :prefix || n || '@test.local', '{noop}secret', 'Student ' || n,
+                               'STUDENT', true, 0, now()
+                        FROM generate_series(1, :count) n
+                        RETURNING id""", UUID.class)
+                .setParameter("prefix", "student-" + suffix() + "-")
+                .setParameter("count", count)
+                .getResultList();
+    }
+
+    public Course course(User teacher, Course.CourseStatus status) {
+        Course course = Course.builder()
+                .code("T-" + suffix())
+                .title("Course " + suffix())
+                .description("Test course")
+                .status(status)
+                .teacher(entityManager.getReference(User.class, teacher.getId()))
+                .build();
+        entityManager.persist(course);
+        return course;
+    }
+
+    public Section section(Course course, int orderIndex) {
+        Section section = Section.builder()
+                .course(entityManager.getReference(Course.class, course.getId()))
+                .title("Section " + orderIndex)
+                .orderIndex(orderIndex)
+                .build();
+        entityManager.persist(section);
+        return section;
+    }
+
+    public Lesson lesson(Section section, int orderIndex) {
+        Lesson lesson = Lesson.builder()
+                .section(entityManager.getReference(Section.class, section.getId()))
+                .title("Lesson " + orderIndex)
+                .content("Content " + orderIndex)
+                .orderIndex(orderIndex)
+                .build();
+        entityManager.persist(lesson);
+        return lesson;
+    }
+
+    public LessonAttachment attachment(Lesson lesson, User uploadedBy, int displayOrder) {
+        LessonAttachment attachment = LessonAttachment.builder()
+                .lesson(entityManager.getReference(Lesson.class, lesson.getId()))
+                .fileName("file-" + displayOrder + ".pdf")
+                .originalFileName("File " + displayOrder + ".pdf")
+                .fileUrl("/api/v1/files/documents/2026/01/file-" + suffix() + ".pdf")
+                .fileSize(1024L)
+                .contentType("application/pdf")
+                .fileType("document")
+                .displayOrder(displayOrder)
+                .uploadedBy(entityManager.getReference(User.class, uploadedBy.getId()))
+                .build();
+        entityManager.persist(attachment);
+        return attachment;
+    }
+
+    public Assignment assignment(Course course) {
+        // Inserted natively: binding the entity's null assignment_config as varchar is rejected by the jsonb column
+        UUID id = UUID.randomUUID();
+        entityManager.createNativeQuery("""
+                        INSERT INTO assignments (id, course_id, title, description, assignment_type, status, created_at, updated_at)
+                        VALUES (:id, :courseId, :title, 'Test assignment', 'FILE_SUBMISSION', 'PUBLISHED', now(), now())""")
+                .setParameter("id", id)
+                .setParameter("courseId", course.getId())
+                .setParameter("title", "Assignment " + suffix())
+                .executeUpdate();
+        return entityManager.find(Assignment.class, id);
+    }
+
+    public AssignmentSubmission submission(Assignment assignment, User student) {
+        AssignmentSubmission submission = AssignmentSubmission.builder()
+                .assignment(entityManager.getReference(Assignment.class, assignment.getId()))
+                .student(entityManager.getReference(User.class, student.getId()))
+                .content("Answer of " + student.getUsername())
+                .submittedAt(LocalDateTime.now())
+                .build();
+        entityManager.persist(submission);
+        return submission;
+    }
+
+    public void enroll(Course course, List<User> students) {
+        userRepository.insertEnrollments(course.getId(), students.stream().map(User::getId).toList());
+    }
+
+    private static String suffix() {
+        return UUID.randomUUID().toString().substring(0, 8);
+    }
+}